@@ -1,17 +1,26 @@
 package com.riki.bookstore.config;
 
+import com.riki.bookstore.entity.User;
 import com.riki.bookstore.repository.UserRepository;
+import com.riki.bookstore.security.PooledPasswordEncoder;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 @RequiredArgsConstructor
@@ -25,11 +34,24 @@ public class ApplicationConfig {
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
     }
     
+    // Called after a successful login whose stored hash is weaker than the configured BCrypt strength
+    @Bean
+    public UserDetailsPasswordService userDetailsPasswordService() {
+        return (userDetails, newPassword) -> {
+            userRepository.updatePassword(userDetails.getUsername(), newPassword);
+            if (userDetails instanceof User user) {
+                user.setPassword(newPassword);
+            }
+            return userDetails;
+        };
+    }
+    
     @Bean
-    public AuthenticationProvider authenticationProvider() {
+    public AuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService());
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setPasswordEncoder(passwordEncoder);
+        authProvider.setUserDetailsPasswordService(userDetailsPasswordService());
         return authProvider;
     }
     
@@ -38,8 +60,23 @@ public class ApplicationConfig {
         return config.getAuthenticationManager();
     }
     
+    // BCrypt runs on its own small pool so login bursts cannot occupy every request thread
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PooledPasswordEncoder passwordEncoder(
+            ThreadPoolExecutor passwordHashExecutor,
+            @Value("${auth.hashing.bcrypt-strength:10}") int strength,
+            @Value("${auth.hashing.timeout-ms:5000}") long timeoutMillis
+    ) {
+        return new PooledPasswordEncoder(new BCryptPasswordEncoder(strength), passwordHashExecutor, timeoutMillis);
+    }
+    
+    // Bounded queue: when it is full, further hashing requests are rejected instead of waiting
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor passwordHashExecutor(
+            @Value("${auth.hashing.threads:2}") int threads,
+            @Value("${auth.hashing.queue-capacity:64}") int queueCapacity
+    ) {
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("password-hash-"));
     }
 }
@@ -0,0 +1,25 @@
+package com.riki.bookstore.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class DashboardConfig {
+    
+    // Bounded so one dashboard load cannot take more than `parallelism` connections from the pool
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService dashboardExecutor(@Value("${dashboard.parallelism:6}") int parallelism) {
+        return Executors.newFixedThreadPool(parallelism, new CustomizableThreadFactory("dashboard-"));
+    }
+    
+    // Background refreshes of cached admin statistics; kept apart so they never queue behind dashboard sub-queries
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService snapshotExecutor(@Value("${stats.snapshot.threads:2}") int threads) {
+        return Executors.newFixedThreadPool(threads, new CustomizableThreadFactory("snapshot-"));
+    }
+}
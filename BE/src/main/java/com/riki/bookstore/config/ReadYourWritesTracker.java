@@ -0,0 +1,64 @@
+package com.riki.bookstore.config;
+
+import com.riki.bookstore.entity.User;
+import com.riki.bookstore.security.AuthenticatedUser;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers which users committed a write recently. Their reads stay on the primary for
+ * {@code stickyMillis} afterwards, long enough for the replica to catch up, so nobody is shown
+ * data older than their own last change.
+ */
+public class ReadYourWritesTracker {
+    
+    private final long stickyMillis;
+    private final Map<Long, Long> stickyUntil = new ConcurrentHashMap<>();
+    
+    public ReadYourWritesTracker(long stickyMillis) {
+        this.stickyMillis = stickyMillis;
+    }
+    
+    public void recordWrite(Long userId) {
+        stickyUntil.put(userId, System.currentTimeMillis() + stickyMillis);
+    }
+    
+    public boolean isSticky(Long userId) {
+        Long until = stickyUntil.get(userId);
+        if (until == null) {
+            return false;
+        }
+        if (until > System.currentTimeMillis()) {
+            return true;
+        }
+        stickyUntil.remove(userId, until);
+        return false;
+    }
+    
+    @Scheduled(fixedDelay = 60_000)
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        stickyUntil.values().removeIf(until -> until <= now);
+    }
+    
+    /**
+     * ID of the user the current request is authenticated as, or null.
+     */
+    public static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            return null;
+        }
+        if (authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user.id();
+        }
+        if (authentication.getPrincipal() instanceof User user) {
+            return user.getId();
+        }
+        return null;
+    }
+}
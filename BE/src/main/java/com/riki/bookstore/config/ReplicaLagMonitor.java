@@ -0,0 +1,83 @@
+package com.riki.bookstore.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Polls the replica's replication status. The replica is only used while it answers and its lag is
+ * within {@code maxLagSeconds}; when replication is stopped, broken or too far behind, reads fall back
+ * to the primary until it recovers. With lag checking disabled (two independent local databases)
+ * only reachability is checked.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+    
+    private final JdbcTemplate replica;
+    private final long maxLagSeconds;
+    private final boolean lagCheckEnabled;
+    
+    private volatile boolean usable;
+    private volatile Long lastLagSeconds;
+    
+    public ReplicaLagMonitor(DataSource replicaDataSource, long maxLagSeconds, boolean lagCheckEnabled) {
+        this.replica = new JdbcTemplate(replicaDataSource);
+        this.maxLagSeconds = maxLagSeconds;
+        this.lagCheckEnabled = lagCheckEnabled;
+    }
+    
+    public boolean isUsable() {
+        return usable;
+    }
+    
+    public Long getLastLagSeconds() {
+        return lastLagSeconds;
+    }
+    
+    @Scheduled(fixedDelayString = "${datasource.replica.check-interval-ms:1000}")
+    public void check() {
+        boolean nowUsable;
+        try {
+            if (lagCheckEnabled) {
+                lastLagSeconds = readLagSeconds();
+                nowUsable = lastLagSeconds != null && lastLagSeconds <= maxLagSeconds;
+            } else {
+                replica.queryForObject("SELECT 1", Integer.class);
+                nowUsable = true;
+            }
+        } catch (RuntimeException e) {
+            log.debug("Replica check failed", e);
+            lastLagSeconds = null;
+            nowUsable = false;
+        }
+        
+        if (nowUsable != usable) {
+            log.warn("Replica reads {} (lag: {} s, tolerance: {} s)",
+                    nowUsable ? "resumed" : "suspended", lastLagSeconds, maxLagSeconds);
+        }
+        usable = nowUsable;
+    }
+    
+    // Null when the replica is not replicating (no status row or the SQL thread is stopped)
+    private Long readLagSeconds() {
+        List<Map<String, Object>> status;
+        String lagColumn;
+        try {
+            status = replica.queryForList("SHOW REPLICA STATUS");
+            lagColumn = "Seconds_Behind_Source";
+        } catch (RuntimeException e) {
+            // MySQL before 8.0.22
+            status = replica.queryForList("SHOW SLAVE STATUS");
+            lagColumn = "Seconds_Behind_Master";
+        }
+        if (status.isEmpty()) {
+            return null;
+        }
+        Object lag = status.get(0).get(lagColumn);
+        return lag instanceof Number number ? number.longValue() : null;
+    }
+}
@@ -0,0 +1,53 @@
+package com.riki.bookstore.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Sends connections for read-only transactions to the replica and everything else to the primary.
+ * Read-only work stays on the primary while the replica is lagging or unreachable, and for users who
+ * wrote something within the stickiness window. Has to sit behind a LazyConnectionDataSourceProxy:
+ * the transaction's read-only flag is only known once the transaction has begun.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    
+    public enum Target { PRIMARY, REPLICA }
+    
+    private final ReplicaLagMonitor lagMonitor;
+    private final ReadYourWritesTracker writesTracker;
+    
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica,
+                                    ReplicaLagMonitor lagMonitor, ReadYourWritesTracker writesTracker) {
+        this.lagMonitor = lagMonitor;
+        this.writesTracker = writesTracker;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+    
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Long userId = ReadYourWritesTracker.currentUserId();
+        
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            boolean sticky = userId != null && writesTracker.isSticky(userId);
+            return lagMonitor.isUsable() && !sticky ? Target.REPLICA : Target.PRIMARY;
+        }
+        
+        // A read-write transaction: once it commits, this user's reads stay on the primary for a while
+        if (userId != null && TransactionSynchronizationManager.isActualTransactionActive()
+                && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    writesTracker.recordWrite(userId);
+                }
+            });
+        }
+        return Target.PRIMARY;
+    }
+}
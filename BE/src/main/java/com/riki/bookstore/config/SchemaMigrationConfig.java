@@ -0,0 +1,29 @@
+package com.riki.bookstore.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+@ConditionalOnProperty(name = "schema.migration.enabled", havingValue = "true", matchIfMissing = true)
+public class SchemaMigrationConfig {
+    
+    @Bean(initMethod = "migrate")
+    public SchemaMigrator schemaMigrator(
+            DataSource dataSource,
+            @Value("${schema.migration.locations:classpath:db/migration/V*__*.sql}") String locations,
+            @Value("${schema.migration.baseline-version:1}") int baselineVersion
+    ) {
+        return new SchemaMigrator(dataSource, locations, baselineVersion);
+    }
+    
+    // The schema has to be in place before JPA starts and anything queries it
+    @Bean
+    public static EntityManagerFactoryDependsOnPostProcessor entityManagerFactoryDependsOnSchemaMigrator() {
+        return new EntityManagerFactoryDependsOnPostProcessor("schemaMigrator");
+    }
+}
@@ -0,0 +1,164 @@
+package com.riki.bookstore.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Applies versioned SQL scripts ({@code V<version>__<description>.sql}, the Flyway naming) in version
+ * order and records each one in {@code schema_version}, so every database converges on the same schema
+ * without Hibernate diffing it at startup. A database that already has tables but no history (one that
+ * was managed by ddl-auto) is baselined: scripts up to {@code baselineVersion} are recorded as applied
+ * without running. Such a database may be anywhere between the baseline and the latest entities, so the
+ * scripts right after the baseline must skip objects that already exist. Instances starting together are
+ * serialized with a MySQL named lock.
+ */
+@Slf4j
+public class SchemaMigrator {
+
+    private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+    private static final String LOCK_NAME = "bookstore_schema_migration";
+    private static final int LOCK_TIMEOUT_SECONDS = 300;
+
+    private final DataSource dataSource;
+    private final String locations;
+    private final int baselineVersion;
+
+    public SchemaMigrator(DataSource dataSource, String locations, int baselineVersion) {
+        this.dataSource = dataSource;
+        this.locations = locations;
+        this.baselineVersion = baselineVersion;
+    }
+
+    public void migrate() {
+        List<Script> scripts = loadScripts();
+
+        try (Connection connection = dataSource.getConnection()) {
+            // Named locks belong to the connection, so everything below has to run on this one
+            JdbcTemplate jdbc = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+            Integer locked = jdbc.queryForObject("SELECT GET_LOCK(?, ?)", Integer.class, LOCK_NAME, LOCK_TIMEOUT_SECONDS);
+            if (locked == null || locked != 1) {
+                throw new IllegalStateException("Timed out waiting for another instance to finish migrating the schema");
+            }
+            try {
+                migrate(connection, jdbc, scripts);
+            } finally {
+                jdbc.queryForObject("SELECT RELEASE_LOCK(?)", Integer.class, LOCK_NAME);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Schema migration failed", e);
+        }
+    }
+
+    private void migrate(Connection connection, JdbcTemplate jdbc, List<Script> scripts) {
+        jdbc.execute("CREATE TABLE IF NOT EXISTS schema_version (" +
+                "version INT NOT NULL PRIMARY KEY, " +
+                "description VARCHAR(200) NOT NULL, " +
+                "script VARCHAR(255) NOT NULL, " +
+                "checksum BIGINT NOT NULL, " +
+                "installed_at DATETIME(6) NOT NULL, " +
+                "execution_ms BIGINT NOT NULL)");
+
+        Map<Integer, Long> applied = new HashMap<>();
+        jdbc.query("SELECT version, checksum FROM schema_version",
+                rs -> { applied.put(rs.getInt(1), rs.getLong(2)); });
+
+        if (applied.isEmpty() && hasExistingTables(jdbc)) {
+            for (Script script : scripts) {
+                if (script.version() <= baselineVersion) {
+                    record(jdbc, script, "<< baseline >> " + script.description(), 0);
+                    applied.put(script.version(), script.checksum());
+                }
+            }
+            log.info("Baselined existing schema at version {}", baselineVersion);
+        }
+
+        int migrated = 0;
+        for (Script script : scripts) {
+            Long checksum = applied.get(script.version());
+            if (checksum != null) {
+                if (checksum != script.checksum()) {
+                    throw new IllegalStateException("Migration " + script.name() + " was changed after it was applied");
+                }
+                continue;
+            }
+
+            long startedAt = System.currentTimeMillis();
+            log.info("Applying schema migration {}", script.name());
+            ScriptUtils.executeSqlScript(connection, script.resource());
+            record(jdbc, script, script.description(), System.currentTimeMillis() - startedAt);
+            migrated++;
+        }
+
+        if (migrated > 0) {
+            log.info("Applied {} schema migration(s)", migrated);
+        }
+    }
+
+    private boolean hasExistingTables(JdbcTemplate jdbc) {
+        Integer tables = jdbc.queryForObject("SELECT COUNT(*) FROM information_schema.tables " +
+                "WHERE table_schema = DATABASE() AND table_name <> 'schema_version'", Integer.class);
+        return tables != null && tables > 0;
+    }
+
+    private void record(JdbcTemplate jdbc, Script script, String description, long executionMillis) {
+        jdbc.update("INSERT INTO schema_version (version, description, script, checksum, installed_at, execution_ms) " +
+                        "VALUES (?, ?, ?, ?, ?, ?)",
+                script.version(), description, script.name(), script.checksum(),
+                Timestamp.valueOf(LocalDateTime.now()), executionMillis);
+    }
+
+    private List<Script> loadScripts() {
+        try {
+            List<Script> scripts = new ArrayList<>();
+            for (Resource resource : new PathMatchingResourcePatternResolver().getResources(locations)) {
+                String name = resource.getFilename();
+                Matcher matcher = SCRIPT_NAME.matcher(name == null ? "" : name);
+                if (!matcher.matches()) {
+                    throw new IllegalStateException("Unexpected migration file name: " + name);
+                }
+                scripts.add(new Script(Integer.parseInt(matcher.group(1)), matcher.group(2).replace('_', ' '),
+                        name, checksum(resource), resource));
+            }
+            scripts.sort(Comparator.comparingInt(Script::version));
+            for (int i = 1; i < scripts.size(); i++) {
+                if (scripts.get(i).version() == scripts.get(i - 1).version()) {
+                    throw new IllegalStateException("Duplicate migration version " + scripts.get(i).version());
+                }
+            }
+            return scripts;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read migrations from " + locations, e);
+        }
+    }
+
+    private long checksum(Resource resource) throws IOException {
+        CRC32 crc = new CRC32();
+        try (InputStream in = resource.getInputStream()) {
+            crc.update(in.readAllBytes());
+        }
+        return crc.getValue();
+    }
+
+    private record Script(int version, String description, String name, long checksum, Resource resource) {
+    }
+}
@@ -0,0 +1,33 @@
+package com.riki.bookstore.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+@ConditionalOnProperty(name = "sql.trace.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlTraceConfig {
+    
+    // Wraps whichever bean ends up as "dataSource" (Boot's pool, or the replica router when that is enabled),
+    // so the pools themselves stay unwrapped and every statement is timed exactly once
+    @Bean
+    public static BeanPostProcessor sqlTracingDataSourcePostProcessor(
+            @Value("${sql.trace.slow-threshold-ms:200}") long slowThresholdMillis,
+            @Value("${sql.trace.sample-rate:0.01}") double sampleRate
+    ) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if ("dataSource".equals(beanName) && bean instanceof DataSource dataSource
+                        && !(bean instanceof SqlTracingDataSource)) {
+                    return new SqlTracingDataSource(dataSource, slowThresholdMillis, sampleRate);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,184 @@
+package com.riki.bookstore.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Times every statement executed through the wrapped data source. Statements slower than
+ * {@code slowThresholdMillis} are logged to {@code sql.slow} with their bound parameters and the
+ * request that issued them; a {@code sampleRate} fraction of the rest goes to {@code sql.sample}.
+ * Parameters are only kept as references until a statement turns out to need logging.
+ */
+public class SqlTracingDataSource extends DelegatingDataSource implements Closeable {
+
+    private static final Logger SLOW_LOG = LoggerFactory.getLogger("sql.slow");
+    private static final Logger SAMPLE_LOG = LoggerFactory.getLogger("sql.sample");
+    private static final int MAX_PARAM_LENGTH = 100;
+
+    private final long slowThresholdNanos;
+    private final double sampleRate;
+
+    public SqlTracingDataSource(DataSource target, long slowThresholdMillis, double sampleRate) {
+        super(target);
+        this.slowThresholdNanos = slowThresholdMillis * 1_000_000;
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    // Replaces the pool as the "dataSource" bean, so it has to pass on the pool's shutdown
+    @Override
+    public void close() {
+        if (getTargetDataSource() instanceof Closeable closeable) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not close the traced data source", e);
+            }
+        }
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandler(connection));
+    }
+
+    private void report(String sql, Object[] params, int batchSize, long elapsedNanos) {
+        boolean slow = elapsedNanos >= slowThresholdNanos;
+        if (!slow && (sampleRate <= 0 || ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+            return;
+        }
+
+        Logger target = slow ? SLOW_LOG : SAMPLE_LOG;
+        String endpoint = MDC.get(RequestEndpointFilter.MDC_KEY);
+        String batch = batchSize > 0 ? " batch=" + batchSize : "";
+        if (slow) {
+            target.warn("{} ms [{}]{} {} params={}", elapsedNanos / 1_000_000, endpoint, batch, sql, formatParams(params));
+        } else {
+            target.info("{} ms [{}]{} {} params={}", elapsedNanos / 1_000_000, endpoint, batch, sql, formatParams(params));
+        }
+    }
+
+    private static String formatParams(Object[] params) {
+        if (params == null) {
+            return "[]";
+        }
+        return Arrays.stream(params)
+                .map(param -> {
+                    String value = param instanceof byte[] bytes ? "<" + bytes.length + " bytes>" : String.valueOf(param);
+                    return value.length() > MAX_PARAM_LENGTH ? value.substring(0, MAX_PARAM_LENGTH) + "..." : value;
+                })
+                .toList()
+                .toString();
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = SqlTracingDataSource.invoke(target, method, args);
+            if (result instanceof Statement statement) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+                Class<?> type = result instanceof CallableStatement ? CallableStatement.class
+                        : result instanceof PreparedStatement ? PreparedStatement.class
+                        : Statement.class;
+                return Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                        new Class<?>[]{type}, new StatementHandler(statement, sql));
+            }
+            return result;
+        }
+    }
+
+    private class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final String preparedSql;
+        private Object[] params;
+        private int batchSize;
+
+        StatementHandler(Statement target, String preparedSql) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+
+            // setXxx(int parameterIndex, value, ...) on prepared and callable statements
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index
+                    && preparedSql != null) {
+                bind(index, name.equals("setNull") ? null : args[1]);
+            } else if (name.equals("clearParameters")) {
+                params = null;
+            } else if (name.equals("addBatch")) {
+                batchSize++;
+            } else if (name.equals("clearBatch")) {
+                batchSize = 0;
+            }
+
+            if (!name.startsWith("execute")) {
+                return SqlTracingDataSource.invoke(target, method, args);
+            }
+
+            String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : preparedSql;
+            long startedAt = System.nanoTime();
+            try {
+                return SqlTracingDataSource.invoke(target, method, args);
+            } finally {
+                report(sql, params, name.startsWith("executeBatch") || name.startsWith("executeLargeBatch") ? batchSize : 0,
+                        System.nanoTime() - startedAt);
+                if (name.contains("Batch")) {
+                    batchSize = 0;
+                }
+            }
+        }
+
+        private void bind(int index, Object value) {
+            if (params == null) {
+                params = new Object[Math.max(index, 8)];
+            } else if (index > params.length) {
+                params = Arrays.copyOf(params, Math.max(index, params.length * 2));
+            }
+            params[index - 1] = value;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.riki.bookstore.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class StreamConfig {
+    
+    // Fixed thread budget for the (blocking) sends of every server-sent event stream, regardless of connection count
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService sseExecutor(@Value("${stream.threads:2}") int threads) {
+        return Executors.newFixedThreadPool(threads, new CustomizableThreadFactory("sse-"));
+    }
+    
+    // Heartbeats, stall checks and periodic pushes; never sends, so clients that stop reading cannot stall it
+    @Bean(destroyMethod = "shutdown")
+    public StreamScheduler sseScheduler() {
+        return new StreamScheduler();
+    }
+}
@@ -0,0 +1,27 @@
+package com.riki.bookstore.config;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The single thread that runs stream heartbeats, stall checks and periodic pushes. Deliberately not a
+ * {@link ScheduledExecutorService} bean: Spring would pick that up as the scheduler for every
+ * {@code @Scheduled} job, and Spring Boot would stop creating its own.
+ */
+public class StreamScheduler {
+    
+    private final ScheduledExecutorService scheduler =
+            Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("sse-scheduler-"));
+    
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit) {
+        return scheduler.scheduleAtFixedRate(task, initialDelay, period, unit);
+    }
+    
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
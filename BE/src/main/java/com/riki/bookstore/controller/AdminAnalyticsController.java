@@ -0,0 +1,86 @@
+package com.riki.bookstore.controller;
+
+import com.riki.bookstore.dto.ApiResponse;
+import com.riki.bookstore.dto.SalesAnalyticsResponse;
+import com.riki.bookstore.dto.UniqueBuyersResponse;
+import com.riki.bookstore.entity.BuyerSketch;
+import com.riki.bookstore.service.SalesAnalyticsService;
+import com.riki.bookstore.service.UniqueBuyerService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/analytics")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+@Tag(name = "Admin Sales Analytics", description = "Sales breakdowns served from the in-memory analytics store")
+public class AdminAnalyticsController {
+    
+    private final SalesAnalyticsService salesAnalyticsService;
+    private final UniqueBuyerService uniqueBuyerService;
+    
+    @GetMapping("/revenue/daily")
+    @Operation(summary = "Units sold and revenue per day (date range inclusive, default last 30 days)")
+    public ApiResponse<SalesAnalyticsResponse> getRevenueByDay(
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        return ApiResponse.success(salesAnalyticsService.revenueByDay(fromOrDefault(from), toOrDefault(to)));
+    }
+    
+    @GetMapping("/revenue/categories")
+    @Operation(summary = "Units sold and revenue per category")
+    public ApiResponse<SalesAnalyticsResponse> getRevenueByCategory(
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        return ApiResponse.success(salesAnalyticsService.revenueByCategory(fromOrDefault(from), toOrDefault(to)));
+    }
+    
+    @GetMapping("/revenue/authors")
+    @Operation(summary = "Units sold and revenue per author, highest revenue first")
+    public ApiResponse<SalesAnalyticsResponse> getRevenueByAuthor(
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(name = "limit", defaultValue = "20") int limit
+    ) {
+        return ApiResponse.success(salesAnalyticsService.revenueByAuthor(fromOrDefault(from), toOrDefault(to), limit));
+    }
+    
+    @GetMapping("/top-sellers")
+    @Operation(summary = "Best-selling books by quantity or revenue")
+    public ApiResponse<SalesAnalyticsResponse> getTopSellers(
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(name = "limit", defaultValue = "10") int limit,
+            @RequestParam(name = "sortBy", defaultValue = "QUANTITY") SalesAnalyticsService.SortBy sortBy
+    ) {
+        return ApiResponse.success(salesAnalyticsService.topSellers(fromOrDefault(from), toOrDefault(to), limit, sortBy));
+    }
+    
+    @GetMapping("/unique-buyers")
+    @Operation(summary = "Estimated distinct buyers store-wide, or for the union of the given book or category IDs")
+    public ApiResponse<UniqueBuyersResponse> getUniqueBuyers(
+            @RequestParam(name = "dimension", defaultValue = "STORE") BuyerSketch.Dimension dimension,
+            @RequestParam(name = "keys", required = false) List<Long> keys,
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        return ApiResponse.success(uniqueBuyerService.estimate(dimension, keys, fromOrDefault(from), toOrDefault(to)));
+    }
+    
+    private LocalDate fromOrDefault(LocalDate from) {
+        return from != null ? from : LocalDate.now().minusDays(29);
+    }
+    
+    private LocalDate toOrDefault(LocalDate to) {
+        return to != null ? to : LocalDate.now();
+    }
+}
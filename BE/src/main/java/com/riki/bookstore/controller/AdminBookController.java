@@ -3,9 +3,15 @@ package com.riki.bookstore.controller;
 import com.riki.bookstore.dto.ApiResponse;
 import com.riki.bookstore.dto.BookRequest;
 import com.riki.bookstore.dto.BookListResponse;
+import com.riki.bookstore.dto.FlashSaleResponse;
+import com.riki.bookstore.dto.LowStockBookResponse;
 import com.riki.bookstore.dto.PageResponse;
+import com.riki.bookstore.dto.ReorderRunResponse;
+import com.riki.bookstore.dto.ReorderSuggestionResponse;
 import com.riki.bookstore.entity.Book;
 import com.riki.bookstore.service.BookService;
+import com.riki.bookstore.service.FlashSaleService;
+import com.riki.bookstore.service.ReorderSuggestionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
@@ -27,6 +33,8 @@ import java.util.List;
 public class AdminBookController {
     
     private final BookService bookService;
+    private final FlashSaleService flashSaleService;
+    private final ReorderSuggestionService reorderSuggestionService;
     
     @GetMapping
     @Operation(summary = "Get all books with pagination and statistics")
@@ -64,6 +72,14 @@ public class AdminBookController {
         return ApiResponse.success("Book updated successfully", updatedBook);
     }
     
+    @PutMapping("/{id}/restock")
+    @Operation(summary = "Add received units to a book's stock")
+    public ApiResponse<Book> restockBook(@PathVariable Long id, @RequestParam int quantity) {
+        Book updatedBook = bookService.restock(id, quantity);
+        
+        return ApiResponse.success("Book restocked successfully", updatedBook);
+    }
+    
     @DeleteMapping("/{id}")
     @Operation(summary = "Delete book")
     public ApiResponse<Void> deleteBook(@PathVariable Long id) {
@@ -76,10 +92,46 @@ public class AdminBookController {
     }
     
     @GetMapping("/low-stock")
-    @Operation(summary = "Get books with low stock")
-    public ApiResponse<List<Book>> getLowStockBooks(@RequestParam(defaultValue = "10") Integer threshold) {
-        List<Book> books = bookService.getLowStockBooks(threshold);
+    @Operation(summary = "Get the books with the least stock at or below the threshold, lowest first")
+    public ApiResponse<List<LowStockBookResponse>> getLowStockBooks(@RequestParam(defaultValue = "10") int threshold,
+                                                                    @RequestParam(defaultValue = "20") int limit) {
+        List<LowStockBookResponse> books = bookService.getLowStockBooks(threshold, limit);
         
         return ApiResponse.success(books);
     }
+    
+    @GetMapping("/reorder-suggestions")
+    @Operation(summary = "Books that need reordering, most urgent first, from the latest batch run")
+    public ApiResponse<PageResponse<ReorderSuggestionResponse>> getReorderSuggestions(
+            @RequestParam(name = "pageIndex", defaultValue = "0") int pageIndex,
+            @RequestParam(name = "pageSize", defaultValue = "20") int pageSize
+    ) {
+        return ApiResponse.success(reorderSuggestionService.getSuggestions(pageIndex, pageSize));
+    }
+    
+    @GetMapping("/reorder-suggestions/last-run")
+    @Operation(summary = "Statistics of the latest reorder suggestion run since startup")
+    public ApiResponse<ReorderRunResponse> getLastReorderRun() {
+        return ApiResponse.success(reorderSuggestionService.getLastRun());
+    }
+    
+    @PostMapping("/reorder-suggestions/run")
+    @Operation(summary = "Recompute reorder suggestions now")
+    public ApiResponse<ReorderRunResponse> runReorderSuggestions() {
+        return ApiResponse.success("Reorder suggestions recomputed", reorderSuggestionService.run());
+    }
+    
+    @GetMapping("/{id}/flash-sale")
+    @Operation(summary = "Get flash sale status and remaining units")
+    public ApiResponse<FlashSaleResponse> getFlashSale(@PathVariable Long id) {
+        return ApiResponse.success(flashSaleService.getStatus(id));
+    }
+    
+    @PutMapping("/{id}/flash-sale")
+    @Operation(summary = "Enable or disable flash sale mode for a book")
+    public ApiResponse<FlashSaleResponse> setFlashSale(@PathVariable Long id, @RequestParam boolean enabled) {
+        FlashSaleResponse response = flashSaleService.setFlashSale(id, enabled);
+        
+        return ApiResponse.success(enabled ? "Flash sale enabled" : "Flash sale disabled", response);
+    }
 }
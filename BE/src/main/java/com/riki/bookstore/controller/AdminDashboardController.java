@@ -1,15 +1,23 @@
 package com.riki.bookstore.controller;
 
 import com.riki.bookstore.dto.ApiResponse;
+import com.riki.bookstore.dto.DailyStatsResponse;
 import com.riki.bookstore.dto.DashboardStatsResponse;
+import com.riki.bookstore.dto.SalesTimeSeriesResponse;
+import com.riki.bookstore.service.DailyStatsService;
 import com.riki.bookstore.service.DashboardService;
+import com.riki.bookstore.service.SalesTimeSeriesService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDate;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/admin/dashboard")
@@ -19,6 +27,8 @@ import org.springframework.web.bind.annotation.RestController;
 public class AdminDashboardController {
     
     private final DashboardService dashboardService;
+    private final DailyStatsService dailyStatsService;
+    private final SalesTimeSeriesService salesTimeSeriesService;
     
     @GetMapping("/stats")
     @Operation(summary = "Get dashboard statistics")
@@ -27,4 +37,45 @@ public class AdminDashboardController {
         
         return ApiResponse.success(stats);
     }
+    
+    @GetMapping("/sales")
+    @Operation(summary = "Get order count and revenue per step for the last N minutes (served from memory)")
+    public ApiResponse<SalesTimeSeriesResponse> getSalesTimeSeries(
+            @RequestParam(name = "minutes", defaultValue = "60") int minutes,
+            @RequestParam(name = "step", defaultValue = "1") int step
+    ) {
+        return ApiResponse.success(salesTimeSeriesService.getWindow(minutes, step));
+    }
+    
+    @GetMapping(value = "/sales/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream updates of the current minute's sales (server-sent events)")
+    public SseEmitter streamSales() {
+        return salesTimeSeriesService.subscribe();
+    }
+    
+    @GetMapping("/daily-stats")
+    @Operation(summary = "Get per-day order, revenue, user and book counts for a date range (inclusive)")
+    public ApiResponse<List<DailyStatsResponse>> getDailyStats(
+            @RequestParam(name = "from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(name = "to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        if (from.isAfter(to)) {
+            throw new RuntimeException("'from' must not be after 'to'");
+        }
+        
+        return ApiResponse.success(dailyStatsService.getDailyStats(from, to));
+    }
+    
+    @PostMapping("/daily-stats/recompute")
+    @Operation(summary = "Recompute the daily statistics rollup for a date range from the source tables")
+    public ApiResponse<Integer> recomputeDailyStats(
+            @RequestParam(name = "from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(name = "to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        if (from.isAfter(to)) {
+            throw new RuntimeException("'from' must not be after 'to'");
+        }
+        
+        return ApiResponse.success("Daily statistics recomputed", dailyStatsService.recompute(from, to));
+    }
 }
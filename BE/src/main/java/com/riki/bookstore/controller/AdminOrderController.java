@@ -4,18 +4,32 @@ import com.riki.bookstore.dto.ApiResponse;
 import com.riki.bookstore.dto.PageResponse;
 import com.riki.bookstore.dto.OrderResponse;
 import com.riki.bookstore.dto.AdminOrderPageResponse;
+import com.riki.bookstore.dto.OrderBulkStatusRequest;
+import com.riki.bookstore.dto.OrderBulkStatusResponse;
 import com.riki.bookstore.entity.Order;
 import com.riki.bookstore.repository.OrderRepository;
+import com.riki.bookstore.service.OrderExportService;
+import com.riki.bookstore.service.OrderService;
+import com.riki.bookstore.service.SnapshotCache;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -26,6 +40,11 @@ import java.util.List;
 public class AdminOrderController {
     
     private final OrderRepository orderRepository;
+    private final OrderService orderService;
+    private final OrderExportService orderExportService;
+    private final SnapshotCache snapshotCache;
+    
+    private record OrderStats(long pendingOrders, long processingOrders, BigDecimal totalRevenue) {}
     
     @GetMapping
     @Operation(summary = "Get all orders with pagination and statistics")
@@ -36,14 +55,14 @@ public class AdminOrderController {
         Pageable pageable = PageRequest.of(pageIndex, pageSize);
         Page<Order> page = orderRepository.findAll(pageable);
         
-        List<OrderResponse> orderResponses = page.getContent().stream()
-                .map(OrderResponse::fromOrder)
-                .toList();
+        List<OrderResponse> orderResponses = orderService.toResponses(page.getContent());
         
-        // Calculate statistics
-        long pendingOrders = orderRepository.countByStatus(Order.OrderStatus.PENDING);
-        long processingOrders = orderRepository.countByStatus(Order.OrderStatus.PROCESSING);
-        BigDecimal totalRevenue = orderRepository.calculateTotalRevenue();
+        // Calculate statistics (served from a periodically refreshed snapshot)
+        SnapshotCache.Snapshot<OrderStats> stats = snapshotCache.get("order-stats", () -> new OrderStats(
+                orderRepository.countByStatus(Order.OrderStatus.PENDING),
+                orderRepository.countByStatus(Order.OrderStatus.PROCESSING),
+                orderService.calculateTotalRevenue()
+        ));
         
         AdminOrderPageResponse payload = new AdminOrderPageResponse(
                 orderResponses,
@@ -51,21 +70,44 @@ public class AdminOrderController {
                 page.getSize(),
                 page.getTotalElements(),
                 page.getTotalPages(),
-                pendingOrders,
-                processingOrders,
-                totalRevenue
+                stats.getValue().pendingOrders(),
+                stats.getValue().processingOrders(),
+                stats.getValue().totalRevenue(),
+                stats.getAgeMillis()
         );
         
         return ApiResponse.success(payload);
     }
     
+    @GetMapping("/export")
+    @Operation(summary = "Stream orders as CSV or NDJSON, filtered by creation date range and status")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(name = "format", defaultValue = "CSV") OrderExportService.Format format,
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(name = "status", required = false) Order.OrderStatus status,
+            @RequestParam(name = "includeArchived", defaultValue = "true") boolean includeArchived
+    ) {
+        // Date range is inclusive on both ends
+        LocalDateTime fromTime = from != null ? from.atStartOfDay() : LocalDateTime.of(1970, 1, 1, 0, 0);
+        LocalDateTime toTime = to != null ? to.plusDays(1).atStartOfDay() : LocalDateTime.now().plusDays(1);
+        
+        boolean csv = format == OrderExportService.Format.CSV;
+        String filename = "orders-" + LocalDate.now() + (csv ? ".csv" : ".ndjson");
+        
+        StreamingResponseBody body = outputStream ->
+                orderExportService.export(format, fromTime, toTime, status, includeArchived, outputStream);
+        
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8) : MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+    
     @GetMapping("/{id}")
     @Operation(summary = "Get order by ID")
     public ApiResponse<OrderResponse> getOrderById(@PathVariable Long id) {
-        Order order = orderRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Order not found"));
-        
-        return ApiResponse.success(OrderResponse.fromOrder(order));
+        return ApiResponse.success(orderService.getOrderDetail(id, null));
     }
     
     @GetMapping("/status/{status}")
@@ -78,30 +120,22 @@ public class AdminOrderController {
         Pageable pageable = PageRequest.of(pageIndex, pageSize);
         Page<Order> page = orderRepository.findByStatus(status, pageable);
         
-        List<OrderResponse> orderResponses = page.getContent().stream()
-                .map(OrderResponse::fromOrder)
-                .toList();
-        
-        PageResponse<OrderResponse> payload = new PageResponse<>(
-                orderResponses,
-                page.getNumber(),
-                page.getSize(),
-                page.getTotalElements(),
-                page.getTotalPages()
-        );
-        
-        return ApiResponse.success(payload);
+        return ApiResponse.success(orderService.toPageResponse(page));
     }
     
     @PutMapping("/{id}/status")
     @Operation(summary = "Update order status")
     public ApiResponse<OrderResponse> updateOrderStatus(@PathVariable Long id, @RequestParam Order.OrderStatus status) {
-        Order order = orderRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Order not found"));
+        Order updatedOrder = orderService.updateStatus(id, status);
         
-        order.setStatus(status);
-        Order updatedOrder = orderRepository.save(order);
+        return ApiResponse.success("Order status updated successfully", orderService.toDetailResponse(updatedOrder));
+    }
+    
+    @PutMapping("/bulk-status")
+    @Operation(summary = "Update the status of many orders at once")
+    public ApiResponse<OrderBulkStatusResponse> bulkUpdateOrderStatus(@Valid @RequestBody OrderBulkStatusRequest request) {
+        OrderBulkStatusResponse response = orderService.bulkUpdateStatus(request.getOrderIds(), request.getStatus());
         
-        return ApiResponse.success("Order status updated successfully", OrderResponse.fromOrder(updatedOrder));
+        return ApiResponse.success("Bulk status update processed", response);
     }
 }
@@ -2,19 +2,33 @@ package com.riki.bookstore.controller;
 
 import com.riki.bookstore.dto.ApiResponse;
 import com.riki.bookstore.dto.PageResponse;
+import com.riki.bookstore.dto.UserImportResponse;
 import com.riki.bookstore.dto.UserResponse;
+import com.riki.bookstore.dto.UserSearchResponse;
 import com.riki.bookstore.dto.AdminUserPageResponse;
+import com.riki.bookstore.dto.AuthMetricsResponse;
 import com.riki.bookstore.entity.User;
 import com.riki.bookstore.repository.UserRepository;
+import com.riki.bookstore.security.LoginRateLimiter;
+import com.riki.bookstore.security.PooledPasswordEncoder;
+import com.riki.bookstore.security.RefreshTokenService;
+import com.riki.bookstore.security.TokenRevocationService;
+import com.riki.bookstore.security.UserStatusCache;
+import com.riki.bookstore.service.SnapshotCache;
+import com.riki.bookstore.service.UserImportService;
+import com.riki.bookstore.service.UserSearchService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -25,6 +39,32 @@ import java.util.List;
 public class AdminUserController {
     
     private final UserRepository userRepository;
+    private final SnapshotCache snapshotCache;
+    private final UserStatusCache userStatusCache;
+    private final PooledPasswordEncoder passwordEncoder;
+    private final UserImportService userImportService;
+    private final UserSearchService userSearchService;
+    private final LoginRateLimiter loginRateLimiter;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationService tokenRevocationService;
+    
+    private record UserStats(long activeAccounts, long adminCount, long customerCount) {}
+    
+    private UserStats computeUserStats() {
+        long active = 0, admins = 0, customers = 0;
+        for (Object[] row : userRepository.countGroupedByRoleAndEnabled()) {
+            long count = ((Number) row[2]).longValue();
+            if ((Boolean) row[1]) {
+                active += count;
+            }
+            if (row[0] == User.Role.ADMIN) {
+                admins += count;
+            } else {
+                customers += count;
+            }
+        }
+        return new UserStats(active, admins, customers);
+    }
     
     @GetMapping
     @Operation(summary = "Get all users with pagination and statistics")
@@ -39,10 +79,8 @@ public class AdminUserController {
                 .map(UserResponse::fromUser)
                 .toList();
         
-        // Calculate statistics
-        long activeAccounts = userRepository.countByEnabledTrue();
-        long adminCount = userRepository.countByRole(User.Role.ADMIN);
-        long customerCount = userRepository.countByRole(User.Role.USER);
+        // Calculate statistics (served from a periodically refreshed snapshot)
+        SnapshotCache.Snapshot<UserStats> stats = snapshotCache.get("user-stats", this::computeUserStats);
         
         AdminUserPageResponse payload = new AdminUserPageResponse(
                 userResponses,
@@ -50,14 +88,26 @@ public class AdminUserController {
                 page.getSize(),
                 page.getTotalElements(),
                 page.getTotalPages(),
-                activeAccounts,
-                adminCount,
-                customerCount
+                stats.getValue().activeAccounts(),
+                stats.getValue().adminCount(),
+                stats.getValue().customerCount(),
+                stats.getAgeMillis()
         );
         
         return ApiResponse.success(payload);
     }
     
+    @GetMapping("/search")
+    @Operation(summary = "Prefix search users by username, email, phone or full name (keyset paginated)")
+    public ApiResponse<UserSearchResponse> searchUsers(
+            @RequestParam(name = "q") String query,
+            @RequestParam(name = "field", required = false) UserSearchService.Field field,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "limit", defaultValue = "20") int limit
+    ) {
+        return ApiResponse.success(userSearchService.search(query, field, cursor, limit));
+    }
+    
     @GetMapping("/{id}")
     @Operation(summary = "Get user by ID")
     public ApiResponse<UserResponse> getUserById(@PathVariable Long id) {
@@ -75,12 +125,28 @@ public class AdminUserController {
         
         user.setEnabled(!user.isEnabled());
         User updatedUser = userRepository.save(user);
+        userStatusCache.invalidate(id);
+        if (!user.isEnabled()) {
+            refreshTokenService.revokeAll(id);
+        }
         
         String message = user.isEnabled() ? "User enabled successfully" : "User disabled successfully";
         
         return ApiResponse.success(message, UserResponse.fromUser(updatedUser));
     }
     
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Bulk import customers from a CSV file (username,password,fullName,email,phone,address)")
+    public ApiResponse<UserImportResponse> importUsers(@RequestParam("file") MultipartFile file) throws IOException {
+        if (file.isEmpty()) {
+            throw new RuntimeException("CSV file is required");
+        }
+        
+        UserImportResponse report = userImportService.importCsv(file.getInputStream());
+        
+        return ApiResponse.success("Imported " + report.getImported() + " of " + report.getTotalRows() + " users", report);
+    }
+    
     @GetMapping("/customers")
     @Operation(summary = "Get all customers (users with USER role)")
     public ApiResponse<PageResponse<UserResponse>> getAllCustomers(
@@ -104,4 +170,25 @@ public class AdminUserController {
         
         return ApiResponse.success(payload);
     }
+    
+    @GetMapping("/auth-metrics")
+    @Operation(summary = "Get password hashing, login rate limiting and token revocation metrics")
+    public ApiResponse<AuthMetricsResponse> getAuthMetrics() {
+        AuthMetricsResponse metrics = new AuthMetricsResponse(
+                passwordEncoder.getPoolSize(),
+                passwordEncoder.getActiveCount(),
+                passwordEncoder.getQueueDepth(),
+                passwordEncoder.getCompletedCount(),
+                passwordEncoder.getRejectedCount(),
+                passwordEncoder.getAverageHashMillis(),
+                passwordEncoder.getMaxHashMillis(),
+                loginRateLimiter.getLimitedByIp(),
+                loginRateLimiter.getLimitedByUsername(),
+                loginRateLimiter.getTrackedBuckets(),
+                tokenRevocationService.getConfirmedLookups(),
+                tokenRevocationService.getFalsePositives()
+        );
+        
+        return ApiResponse.success(metrics);
+    }
 }
@@ -3,11 +3,13 @@ package com.riki.bookstore.controller;
 import com.riki.bookstore.dto.ApiResponse;
 import com.riki.bookstore.dto.LoginRequest;
 import com.riki.bookstore.dto.LoginResponse;
+import com.riki.bookstore.dto.RefreshTokenRequest;
 import com.riki.bookstore.dto.RegisterRequest;
 import com.riki.bookstore.entity.User;
 import com.riki.bookstore.service.AuthService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
@@ -38,9 +40,29 @@ public class AuthController {
     
     @PostMapping("/login")
     @Operation(summary = "Login user")
-    public ApiResponse<LoginResponse> login(@Valid @RequestBody LoginRequest request) {
-        LoginResponse response = authService.login(request);
+    public ApiResponse<LoginResponse> login(@Valid @RequestBody LoginRequest request, HttpServletRequest httpRequest) {
+        LoginResponse response = authService.login(request, httpRequest.getRemoteAddr());
         
         return ApiResponse.success("Login successful", response);
     }
+    
+    @PostMapping("/refresh")
+    @Operation(summary = "Exchange a refresh token for a new access token")
+    public ApiResponse<LoginResponse> refresh(@Valid @RequestBody RefreshTokenRequest request) {
+        LoginResponse response = authService.refresh(request);
+        
+        return ApiResponse.success("Token refreshed successfully", response);
+    }
+    
+    @PostMapping("/logout")
+    @Operation(summary = "Revoke the refresh token and the current access token")
+    public ApiResponse<Void> logout(
+            @Valid @RequestBody RefreshTokenRequest request,
+            @RequestHeader(name = "Authorization", required = false) String authHeader
+    ) {
+        String accessToken = authHeader != null && authHeader.startsWith("Bearer ") ? authHeader.substring(7) : null;
+        authService.logout(request, accessToken);
+        
+        return ApiResponse.success("Logout successful", null);
+    }
 }
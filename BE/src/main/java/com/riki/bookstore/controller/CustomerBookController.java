@@ -1,9 +1,11 @@
 package com.riki.bookstore.controller;
 
 import com.riki.bookstore.dto.ApiResponse;
+import com.riki.bookstore.dto.FlashSaleResponse;
 import com.riki.bookstore.dto.PageResponse;
 import com.riki.bookstore.entity.Book;
 import com.riki.bookstore.service.BookService;
+import com.riki.bookstore.service.FlashSaleService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
@@ -19,6 +21,7 @@ import org.springframework.web.bind.annotation.*;
 public class CustomerBookController {
     
     private final BookService bookService;
+    private final FlashSaleService flashSaleService;
     
     @GetMapping
     @Operation(summary = "Get all books with pagination")
@@ -47,6 +50,12 @@ public class CustomerBookController {
         return ApiResponse.success(book);
     }
     
+    @GetMapping("/{id}/flash-sale")
+    @Operation(summary = "Get live flash sale counter for a book")
+    public ApiResponse<FlashSaleResponse> getFlashSale(@PathVariable Long id) {
+        return ApiResponse.success(flashSaleService.getStatus(id));
+    }
+    
     @GetMapping("/search")
     @Operation(summary = "Search books by title or author")
     public ApiResponse<PageResponse<Book>> searchBooks(
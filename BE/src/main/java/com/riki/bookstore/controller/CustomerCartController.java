@@ -3,15 +3,14 @@ package com.riki.bookstore.controller;
 import com.riki.bookstore.dto.ApiResponse;
 import com.riki.bookstore.dto.CartItemResponse;
 import com.riki.bookstore.entity.CartItem;
-import com.riki.bookstore.entity.User;
 import com.riki.bookstore.repository.BookRepository;
 import com.riki.bookstore.repository.CartItemRepository;
 import com.riki.bookstore.repository.UserRepository;
+import com.riki.bookstore.security.CurrentUser;
+import com.riki.bookstore.service.FlashSaleService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
@@ -26,12 +25,12 @@ public class CustomerCartController {
     private final CartItemRepository cartItemRepository;
     private final BookRepository bookRepository;
     private final UserRepository userRepository;
+    private final FlashSaleService flashSaleService;
     
     @GetMapping
     @Operation(summary = "Get user's cart items")
-    public ApiResponse<List<CartItemResponse>> getCartItems() {
-        User user = getCurrentUser();
-        List<CartItem> cartItems = cartItemRepository.findByUserAndIsDeletedFalse(user);
+    public ApiResponse<List<CartItemResponse>> getCartItems(@CurrentUser Long userId) {
+        List<CartItem> cartItems = cartItemRepository.findByUserIdAndIsDeletedFalse(userId);
         
         List<CartItemResponse> cartItemResponses = cartItems.stream()
                 .map(cartItem -> new CartItemResponse(
@@ -52,17 +51,18 @@ public class CustomerCartController {
     
     @PostMapping("/add")
     @Operation(summary = "Add book to cart")
-    public ApiResponse<CartItemResponse> addToCart(@RequestParam Long bookId, @RequestParam Integer quantity) {
-        User user = getCurrentUser();
-        
+    public ApiResponse<CartItemResponse> addToCart(@CurrentUser Long userId, @RequestParam Long bookId, @RequestParam Integer quantity) {
         if (quantity <= 0) {
             throw new RuntimeException("Quantity must be greater than 0");
         }
         
+        // Reject sold-out flash sale books before any database work
+        flashSaleService.checkAvailable(bookId, quantity);
+        
         bookRepository.findById(bookId)
                 .orElseThrow(() -> new RuntimeException("Book not found"));
         
-        CartItem existingItem = cartItemRepository.findByUserAndBookIdAndIsDeletedFalse(user, bookId).orElse(null);
+        CartItem existingItem = cartItemRepository.findByUserIdAndBookIdAndIsDeletedFalse(userId, bookId).orElse(null);
         
         if (existingItem != null) {
             existingItem.setQuantity(existingItem.getQuantity() + quantity);
@@ -83,7 +83,7 @@ public class CustomerCartController {
             return ApiResponse.success("Book quantity updated in cart", response);
         } else {
             CartItem newItem = new CartItem();
-            newItem.setUser(user);
+            newItem.setUser(userRepository.getReferenceById(userId)); // reference only, no query
             newItem.setBook(bookRepository.findById(bookId).get());
             newItem.setQuantity(quantity);
             
@@ -107,9 +107,7 @@ public class CustomerCartController {
     
     @PutMapping("/update/{cartItemId}")
     @Operation(summary = "Update cart item quantity")
-    public ApiResponse<CartItemResponse> updateCartItem(@PathVariable Long cartItemId, @RequestParam Integer quantity) {
-        User user = getCurrentUser();
-        
+    public ApiResponse<CartItemResponse> updateCartItem(@CurrentUser Long userId, @PathVariable Long cartItemId, @RequestParam Integer quantity) {
         if (quantity <= 0) {
             throw new RuntimeException("Quantity must be greater than 0");
         }
@@ -117,7 +115,7 @@ public class CustomerCartController {
         CartItem cartItem = cartItemRepository.findById(cartItemId)
                 .orElseThrow(() -> new RuntimeException("Cart item not found"));
         
-        if (!cartItem.getUser().getId().equals(user.getId())) {
+        if (!cartItem.getUser().getId().equals(userId)) {
             throw new RuntimeException("Unauthorized access to cart item");
         }
         
@@ -142,13 +140,11 @@ public class CustomerCartController {
     @DeleteMapping("/remove/{cartItemId}")
     @Operation(summary = "Remove item from cart")
     @Transactional
-    public ApiResponse<Void> removeFromCart(@PathVariable Long cartItemId) {
-        User user = getCurrentUser();
-        
+    public ApiResponse<Void> removeFromCart(@CurrentUser Long userId, @PathVariable Long cartItemId) {
         CartItem cartItem = cartItemRepository.findById(cartItemId)
                 .orElseThrow(() -> new RuntimeException("Cart item not found"));
         
-        if (!cartItem.getUser().getId().equals(user.getId())) {
+        if (!cartItem.getUser().getId().equals(userId)) {
             throw new RuntimeException("Unauthorized access to cart item");
         }
         
@@ -160,18 +156,9 @@ public class CustomerCartController {
     @DeleteMapping("/clear")
     @Operation(summary = "Clear all cart items")
     @Transactional
-    public ApiResponse<Void> clearCart() {
-        User user = getCurrentUser();
-        cartItemRepository.softDeleteByUser(user);
+    public ApiResponse<Void> clearCart(@CurrentUser Long userId) {
+        cartItemRepository.softDeleteByUserId(userId);
         
         return ApiResponse.success("Cart cleared", null);
     }
-    
-    private User getCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        
-        return userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-    }
 }
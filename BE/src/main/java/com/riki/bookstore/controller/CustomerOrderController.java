@@ -1,26 +1,33 @@
 package com.riki.bookstore.controller;
 
 import com.riki.bookstore.dto.ApiResponse;
-import com.riki.bookstore.dto.PageResponse;
 import com.riki.bookstore.dto.OrderCreateRequest;
+import com.riki.bookstore.dto.OrderHistoryResponse;
 import com.riki.bookstore.dto.OrderResponse;
 import com.riki.bookstore.entity.*;
+import com.riki.bookstore.event.InventoryChangedEvent;
+import com.riki.bookstore.event.OrderPlacedEvent;
 import com.riki.bookstore.repository.*;
+import com.riki.bookstore.security.CurrentUser;
+import com.riki.bookstore.service.DailyStatsService;
+import com.riki.bookstore.service.FlashSaleService;
+import com.riki.bookstore.service.OrderService;
+import com.riki.bookstore.service.OrderStatusStreamService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.MediaType;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @RestController
@@ -34,57 +41,49 @@ public class CustomerOrderController {
     private final UserRepository userRepository;
     private final BookRepository bookRepository;
     private final OrderItemRepository orderItemRepository;
+    private final FlashSaleService flashSaleService;
+    private final OrderService orderService;
+    private final OrderStatusStreamService orderStatusStreamService;
+    private final DailyStatsService dailyStatsService;
+    private final ApplicationEventPublisher eventPublisher;
     
     @GetMapping
-    @Operation(summary = "Get user's order history")
-    public ApiResponse<PageResponse<OrderResponse>> getOrderHistory(
-            @RequestParam(name = "pageIndex", defaultValue = "0") int pageIndex,
+    @Operation(summary = "Get user's order history, newest first; pass nextCursor back as cursor for the next page")
+    public ApiResponse<OrderHistoryResponse> getOrderHistory(
+            @CurrentUser Long userId,
+            @RequestParam(name = "cursor", required = false) String cursor,
             @RequestParam(name = "pageSize", defaultValue = "10") int pageSize
     ) {
-        User user = getCurrentUser();
-        Pageable pageable = PageRequest.of(pageIndex, pageSize);
-        Page<Order> page = orderRepository.findByUser(user, pageable);
-        
-        List<OrderResponse> orderResponses = page.getContent().stream()
-                .map(OrderResponse::fromOrder)
-                .toList();
-        
-        PageResponse<OrderResponse> payload = new PageResponse<>(
-                orderResponses,
-                page.getNumber(),
-                page.getSize(),
-                page.getTotalElements(),
-                page.getTotalPages()
-        );
-        
-        return ApiResponse.success(payload);
+        return ApiResponse.success(orderService.getOrderHistory(userId, cursor, pageSize));
+    }
+    
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream status changes of the user's orders (server-sent events)")
+    public SseEmitter streamOrderStatus(@CurrentUser Long userId) {
+        return orderStatusStreamService.subscribe(userId);
     }
     
     @GetMapping("/{id}")
     @Operation(summary = "Get order details by ID")
-    public ApiResponse<OrderResponse> getOrderById(@PathVariable Long id) {
-        User user = getCurrentUser();
-        Order order = orderRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Order not found"));
-        
-        if (!order.getUser().getId().equals(user.getId())) {
-            throw new RuntimeException("Unauthorized access to order");
-        }
-        
-        return ApiResponse.success(OrderResponse.fromOrder(order));
+    public ApiResponse<OrderResponse> getOrderById(@CurrentUser Long userId, @PathVariable Long id) {
+        return ApiResponse.success(orderService.getOrderDetail(id, userId));
     }
     
     @PostMapping("/create")
     @Operation(summary = "Create new order from cart")
     @Transactional
-    public ApiResponse<OrderResponse> createOrder(@Valid @RequestBody OrderCreateRequest orderRequest) {
-        User user = getCurrentUser();
-        List<CartItem> cartItems = cartItemRepository.findByUserAndIsDeletedFalse(user);
+    public ApiResponse<OrderResponse> createOrder(@CurrentUser Long userId, @Valid @RequestBody OrderCreateRequest orderRequest) {
+        List<CartItem> cartItems = cartItemRepository.findByUserIdAndIsDeletedFalse(userId);
         
         if (cartItems.isEmpty()) {
             throw new RuntimeException("Cart is empty");
         }
         
+        // Take flash sale tokens before touching stock; returned automatically on rollback
+        Map<Long, Integer> quantities = new HashMap<>();
+        cartItems.forEach(item -> quantities.merge(item.getBook().getId(), item.getQuantity(), Integer::sum));
+        flashSaleService.admit(quantities);
+        
         // Calculate total amount
         BigDecimal totalAmount = cartItems.stream()
                 .map(item -> item.getBook().getPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
@@ -93,7 +92,7 @@ public class CustomerOrderController {
         // Create order
         Order order = new Order();
         order.setOrderNumber(generateOrderNumber());
-        order.setUser(user);
+        order.setUser(userRepository.getReferenceById(userId)); // reference only, no query
         order.setRecipientName(orderRequest.getRecipientName());
         order.setRecipientPhone(orderRequest.getRecipientPhone());
         order.setRecipientAddress(orderRequest.getRecipientAddress());
@@ -107,13 +106,13 @@ public class CustomerOrderController {
         for (CartItem cartItem : cartItems) {
             Book book = cartItem.getBook();
             
-            if (book.getStockQuantity() < cartItem.getQuantity()) {
+            // Update book stock in place; a concurrent checkout or restock cannot be overwritten
+            if (bookRepository.takeStock(book.getId(), cartItem.getQuantity(), LocalDateTime.now()) == 0) {
                 throw new RuntimeException("Insufficient stock for book: " + book.getTitle());
             }
-            
-            // Update book stock
-            book.setStockQuantity(book.getStockQuantity() - cartItem.getQuantity());
-            bookRepository.save(book);
+            Integer stock = bookRepository.findStockById(book.getId());
+            eventPublisher.publishEvent(new InventoryChangedEvent(
+                    book.getId(), stock + cartItem.getQuantity(), book.getPrice(), stock, book.getPrice()));
             
             // Create order item
             OrderItem orderItem = new OrderItem();
@@ -127,34 +126,22 @@ public class CustomerOrderController {
         }
         
         // Clear cart (soft delete)
-        cartItemRepository.softDeleteByUser(user);
+        cartItemRepository.softDeleteByUserId(userId);
+        
+        dailyStatsService.recordOrder(savedOrder.getCreatedAt(), totalAmount);
+        eventPublisher.publishEvent(new OrderPlacedEvent(
+                savedOrder.getId(), savedOrder.getOrderNumber(), userId, totalAmount, savedOrder.getCreatedAt()));
         
         return ApiResponse.success("Order created successfully", OrderResponse.fromOrder(savedOrder));
     }
     
     @GetMapping("/status/{orderNumber}")
     @Operation(summary = "Check order status by order number")
-    public ApiResponse<OrderResponse> checkOrderStatus(@PathVariable String orderNumber) {
-        User user = getCurrentUser();
-        Order order = orderRepository.findByOrderNumber(orderNumber)
-                .orElseThrow(() -> new RuntimeException("Order not found"));
-        
-        if (!order.getUser().getId().equals(user.getId())) {
-            throw new RuntimeException("Unauthorized access to order");
-        }
-        
-        return ApiResponse.success(OrderResponse.fromOrder(order));
+    public ApiResponse<OrderResponse> checkOrderStatus(@CurrentUser Long userId, @PathVariable String orderNumber) {
+        return ApiResponse.success(orderService.getOrderDetailByNumber(orderNumber, userId));
     }
     
     private String generateOrderNumber() {
         return "ORD-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
     }
-    
-    private User getCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        
-        return userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-    }
 }
@@ -3,6 +3,7 @@ package com.riki.bookstore.controller;
 import com.riki.bookstore.dto.ApiResponse;
 import com.riki.bookstore.dto.ProfileResponse;
 import com.riki.bookstore.dto.ProfileUpdateRequest;
+import com.riki.bookstore.security.CurrentUser;
 import com.riki.bookstore.service.ProfileService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -23,16 +24,16 @@ public class CustomerProfileController {
     
     @GetMapping
     @Operation(summary = "Get current user profile")
-    public ApiResponse<ProfileResponse> getProfile() {
-        ProfileResponse profile = profileService.getCurrentUserProfile();
+    public ApiResponse<ProfileResponse> getProfile(@CurrentUser Long userId) {
+        ProfileResponse profile = profileService.getProfile(userId);
         
         return ApiResponse.success(profile);
     }
     
     @PutMapping
     @Operation(summary = "Update current user profile")
-    public ApiResponse<ProfileResponse> updateProfile(@Valid @RequestBody ProfileUpdateRequest request) {
-        ProfileResponse updatedProfile = profileService.updateProfile(request);
+    public ApiResponse<ProfileResponse> updateProfile(@CurrentUser Long userId, @Valid @RequestBody ProfileUpdateRequest request) {
+        ProfileResponse updatedProfile = profileService.updateProfile(userId, request);
         
         return ApiResponse.success("Cập nhật thông tin thành công", updatedProfile);
     }
@@ -21,4 +21,5 @@ public class AdminOrderPageResponse {
     private long pendingOrders;
     private long processingOrders;
     private BigDecimal totalRevenue;
+    private long snapshotAgeMillis; // age of the cached statistics above
 }
@@ -20,4 +20,5 @@ public class AdminUserPageResponse {
     private long activeAccounts;
     private long adminCount;
     private long customerCount;
+    private long snapshotAgeMillis; // age of the cached statistics above
 }
@@ -0,0 +1,28 @@
+package com.riki.bookstore.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuthMetricsResponse {
+    // Password hashing pool
+    private int hashPoolSize;
+    private int hashActive;
+    private int hashQueueDepth;
+    private long hashCompleted;
+    private long hashRejected;       // queue full or timed out waiting
+    private double hashAverageMillis;
+    private double hashMaxMillis;
+    
+    // Login rate limiting
+    private long loginsLimitedByIp;
+    private long loginsLimitedByUsername;
+    private int trackedBuckets;
+    
+    // Access-token revocation: Bloom filter hits confirmed against the database
+    private long revocationLookups;
+    private long revocationFalsePositives;
+}
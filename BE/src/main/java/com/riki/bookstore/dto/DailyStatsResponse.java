@@ -0,0 +1,33 @@
+package com.riki.bookstore.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.riki.bookstore.entity.DailyStats;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyStatsResponse {
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate date;
+    
+    private long orderCount;
+    private BigDecimal revenue;
+    private long newUsers;
+    private long newBooks;
+    
+    public static DailyStatsResponse fromDailyStats(DailyStats stats) {
+        return new DailyStatsResponse(
+                stats.getStatDate(),
+                stats.getOrderCount(),
+                stats.getRevenue(),
+                stats.getNewUsers(),
+                stats.getNewBooks()
+        );
+    }
+}
@@ -6,6 +6,7 @@ import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 
 @Data
 @NoArgsConstructor
@@ -16,7 +17,35 @@ public class DashboardStatsResponse {
     private CustomerStats customerStats;
     private RevenueStats revenueStats;
     private List<OrderResponse> recentOrders;
-    private List<BookResponse> lowStockBooks;
+    private List<LowStockBookResponse> lowStockBooks;
+    
+    // Set when a section's query timed out or failed and a fallback value was returned
+    private boolean partial;
+    private List<String> incompleteSections = List.of();
+    private Map<String, Long> sectionTimings = Map.of(); // milliseconds per section
+    private long snapshotAgeMillis; // how long ago these figures were computed
+    
+    public DashboardStatsResponse(BookStats bookStats, OrderStats orderStats, CustomerStats customerStats,
+                                  RevenueStats revenueStats, List<OrderResponse> recentOrders,
+                                  List<LowStockBookResponse> lowStockBooks) {
+        this.bookStats = bookStats;
+        this.orderStats = orderStats;
+        this.customerStats = customerStats;
+        this.revenueStats = revenueStats;
+        this.recentOrders = recentOrders;
+        this.lowStockBooks = lowStockBooks;
+    }
+    
+    // Cached snapshots are shared, so each response gets its own copy carrying its age
+    public DashboardStatsResponse withSnapshotAge(long ageMillis) {
+        DashboardStatsResponse copy = new DashboardStatsResponse(bookStats, orderStats, customerStats,
+                revenueStats, recentOrders, lowStockBooks);
+        copy.setPartial(partial);
+        copy.setIncompleteSections(incompleteSections);
+        copy.setSectionTimings(sectionTimings);
+        copy.setSnapshotAgeMillis(ageMillis);
+        return copy;
+    }
     
     @Data
     @NoArgsConstructor
@@ -0,0 +1,14 @@
+package com.riki.bookstore.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlashSaleResponse {
+    private Long bookId;
+    private boolean active;
+    private Integer remainingUnits; // null when the book is not on flash sale
+}
@@ -11,14 +11,18 @@ import lombok.NoArgsConstructor;
 public class LoginResponse {
     
     private String token;
+    private String refreshToken;
+    private long expiresIn; // access token lifetime in milliseconds
     private String username;
     private String fullName;
     private String email;
     private String role;
     
-    public static LoginResponse fromUser(User user, String token) {
+    public static LoginResponse fromUser(User user, String token, String refreshToken, long expiresIn) {
         return new LoginResponse(
             token,
+            refreshToken,
+            expiresIn,
             user.getUsername(),
             user.getFullName(),
             user.getEmail(),
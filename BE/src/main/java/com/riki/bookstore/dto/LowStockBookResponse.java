@@ -0,0 +1,16 @@
+package com.riki.bookstore.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LowStockBookResponse {
+    private Long id;
+    private String title;
+    private String author;
+    private Integer stockQuantity;
+    private String categoryName;
+}
@@ -0,0 +1,34 @@
+package com.riki.bookstore.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderBulkStatusResponse {
+    private String status;
+    private int requested;
+    private int updated;
+    private List<OrderStatusOutcome> results;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class OrderStatusOutcome {
+        private Long orderId;
+        private Outcome outcome;
+        private String previousStatus; // null when the order does not exist
+    }
+    
+    public enum Outcome {
+        UPDATED,
+        UNCHANGED, // already in the requested status
+        NOT_FOUND,
+        INVALID_TRANSITION,
+        CONFLICT // status changed concurrently between validation and update
+    }
+}
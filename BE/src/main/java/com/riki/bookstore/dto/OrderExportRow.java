@@ -0,0 +1,34 @@
+package com.riki.bookstore.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.riki.bookstore.entity.Order;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Flat order projection used by the streaming export; never attached to the persistence context.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderExportRow {
+    private Long id;
+    private String orderNumber;
+    private Long userId;
+    private String recipientName;
+    private String recipientPhone;
+    private String recipientAddress;
+    private BigDecimal totalAmount;
+    private Order.OrderStatus status;
+    private String notes;
+    
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime createdAt;
+    
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime updatedAt;
+}
@@ -41,4 +41,18 @@ public class OrderItemResponse {
         
         return response;
     }
+    
+    public static OrderItemResponse fromSummary(OrderItemSummary summary) {
+        OrderItemResponse response = new OrderItemResponse();
+        response.setId(summary.getId());
+        response.setBookId(summary.getBookId());
+        response.setBookTitle(summary.getBookTitle());
+        response.setBookAuthor(summary.getBookAuthor());
+        response.setQuantity(summary.getQuantity());
+        response.setPrice(summary.getPrice());
+        response.setCreatedAt(summary.getCreatedAt());
+        response.setUpdatedAt(summary.getUpdatedAt());
+        
+        return response;
+    }
 }
@@ -0,0 +1,26 @@
+package com.riki.bookstore.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Order line projection used by order lists: book summary only, no cover image.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderItemSummary {
+    private Long orderId;
+    private Long id;
+    private Long bookId;
+    private String bookTitle;
+    private String bookAuthor;
+    private Integer quantity;
+    private BigDecimal price;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
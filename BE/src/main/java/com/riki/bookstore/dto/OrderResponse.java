@@ -1,6 +1,7 @@
 package com.riki.bookstore.dto;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.riki.bookstore.entity.ArchivedOrder;
 import com.riki.bookstore.entity.Order;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -33,6 +34,19 @@ public class OrderResponse {
     private List<OrderItemResponse> orderItems;
     
     public static OrderResponse fromOrder(Order order) {
+        OrderResponse response = fromOrder(order, null);
+        
+        if (order.getOrderItems() != null) {
+            response.setOrderItems(order.getOrderItems().stream()
+                    .map(OrderItemResponse::fromOrderItem)
+                    .toList());
+        }
+        
+        return response;
+    }
+    
+    // Maps an order with items that were already loaded, without touching its lazy associations
+    public static OrderResponse fromOrder(Order order, List<OrderItemResponse> orderItems) {
         OrderResponse response = new OrderResponse();
         response.setId(order.getId());
         response.setOrderNumber(order.getOrderNumber());
@@ -45,12 +59,25 @@ public class OrderResponse {
         response.setNotes(order.getNotes());
         response.setCreatedAt(order.getCreatedAt());
         response.setUpdatedAt(order.getUpdatedAt());
+        response.setOrderItems(orderItems);
         
-        if (order.getOrderItems() != null) {
-            response.setOrderItems(order.getOrderItems().stream()
-                    .map(OrderItemResponse::fromOrderItem)
-                    .toList());
-        }
+        return response;
+    }
+    
+    public static OrderResponse fromArchivedOrder(ArchivedOrder order, List<OrderItemResponse> orderItems) {
+        OrderResponse response = new OrderResponse();
+        response.setId(order.getId());
+        response.setOrderNumber(order.getOrderNumber());
+        response.setRecipientName(order.getRecipientName());
+        response.setRecipientPhone(order.getRecipientPhone());
+        response.setRecipientAddress(order.getRecipientAddress());
+        response.setTotalAmount(order.getTotalAmount());
+        response.setStatus(order.getStatus().name());
+        response.setStatusDisplayName(order.getStatus().getDisplayName());
+        response.setNotes(order.getNotes());
+        response.setCreatedAt(order.getCreatedAt());
+        response.setUpdatedAt(order.getUpdatedAt());
+        response.setOrderItems(orderItems);
         
         return response;
     }
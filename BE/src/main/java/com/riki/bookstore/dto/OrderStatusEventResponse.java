@@ -0,0 +1,34 @@
+package com.riki.bookstore.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.riki.bookstore.event.OrderStatusChangedEvent;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusEventResponse {
+    private Long orderId;
+    private String orderNumber;
+    private String previousStatus;
+    private String status;
+    private String statusDisplayName;
+    
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime updatedAt;
+    
+    public static OrderStatusEventResponse fromEvent(OrderStatusChangedEvent event) {
+        return new OrderStatusEventResponse(
+                event.getOrderId(),
+                event.getOrderNumber(),
+                event.getPreviousStatus().name(),
+                event.getStatus().name(),
+                event.getStatus().getDisplayName(),
+                event.getUpdatedAt()
+        );
+    }
+}
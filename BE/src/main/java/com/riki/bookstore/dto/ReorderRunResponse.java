@@ -0,0 +1,22 @@
+package com.riki.bookstore.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReorderRunResponse {
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime startedAt;
+    
+    private long tookMillis;
+    private int windowDays;
+    private long orderLines;  // lines read from the sales window
+    private int books;        // books evaluated
+    private int suggestions;  // books that need reordering
+}
@@ -0,0 +1,25 @@
+package com.riki.bookstore.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReorderSuggestionResponse {
+    private Long bookId;
+    private String title;
+    private String author;
+    private Integer stockQuantity;
+    private long unitsSold;
+    private double dailyVelocity;
+    private double daysOfStockLeft;
+    private Integer suggestedQuantity;
+    
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime computedAt;
+}
@@ -0,0 +1,24 @@
+package com.riki.bookstore.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesAnalyticsResponse {
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate from;
+    
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate to;
+    
+    private int scannedLines;
+    private long tookMillis;
+    private List<SalesBreakdownRow> rows;
+}
@@ -0,0 +1,17 @@
+package com.riki.bookstore.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesBreakdownRow {
+    private String key;   // day (yyyy-MM-dd), category ID, author or book ID
+    private String label; // display name
+    private long quantity;
+    private BigDecimal revenue;
+}
@@ -0,0 +1,23 @@
+package com.riki.bookstore.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One order line as loaded into the in-memory sales analytics store.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesFactRow {
+    private Long bookId;
+    private Long categoryId;
+    private String author;
+    private LocalDateTime orderedAt;
+    private Integer quantity;
+    private BigDecimal price;
+}
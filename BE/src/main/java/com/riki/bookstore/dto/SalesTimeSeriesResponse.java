@@ -0,0 +1,19 @@
+package com.riki.bookstore.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesTimeSeriesResponse {
+    private int windowMinutes;
+    private int stepMinutes;
+    private long totalOrders;
+    private BigDecimal totalRevenue;
+    private List<SalesPointResponse> points; // oldest first, one per step, empty steps included
+}
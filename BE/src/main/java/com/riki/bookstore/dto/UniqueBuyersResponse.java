@@ -0,0 +1,28 @@
+package com.riki.bookstore.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UniqueBuyersResponse {
+    private String dimension;
+    private List<Long> keys;
+    
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate from;
+    
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate to;
+    
+    private long estimate;              // distinct buyers over the whole range and all keys
+    private double relativeStandardError;
+    private Map<String, Long> daily;    // per-day estimates keyed yyyy-MM-dd
+}
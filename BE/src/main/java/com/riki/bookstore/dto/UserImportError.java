@@ -0,0 +1,14 @@
+package com.riki.bookstore.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserImportError {
+    private long row;        // 1-based line number in the CSV, header included
+    private String username;
+    private String message;
+}
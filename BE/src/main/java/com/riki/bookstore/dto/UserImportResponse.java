@@ -0,0 +1,19 @@
+package com.riki.bookstore.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserImportResponse {
+    private long totalRows;
+    private long imported;
+    private long failed;
+    private long tookMillis;
+    private List<UserImportError> errors;
+    private boolean errorsTruncated; // more rows failed than are listed
+}
@@ -15,6 +15,7 @@ public class UserResponse {
     private Long id;
     private String username;
     private String email;
+    private String phone;
     private String fullName;
     private String role;
     private boolean enabled;
@@ -30,6 +31,7 @@ public class UserResponse {
         response.setId(user.getId());
         response.setUsername(user.getUsername());
         response.setEmail(user.getEmail());
+        response.setPhone(user.getPhone());
         response.setFullName(user.getFullName());
         response.setRole(user.getRole().name());
         response.setEnabled(user.isEnabled());
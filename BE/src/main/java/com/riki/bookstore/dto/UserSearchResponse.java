@@ -0,0 +1,16 @@
+package com.riki.bookstore.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSearchResponse {
+    private String field;      // the field that was searched
+    private List<UserResponse> items;
+    private String nextCursor; // pass back as 'cursor' for the next page; null on the last page
+}
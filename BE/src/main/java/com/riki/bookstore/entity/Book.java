@@ -10,7 +10,10 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "books")
+@Table(name = "books", indexes = {
+        @Index(name = "idx_books_stock", columnList = "stock_quantity, id"),
+        @Index(name = "idx_books_category_created", columnList = "category_id, created_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -38,6 +41,9 @@ public class Book {
     @Column(nullable = false)
     private Integer stockQuantity;
     
+    @Column(nullable = false)
+    private boolean flashSale = false;
+    
     @ManyToOne(fetch = FetchType.EAGER)
     @JoinColumn(name = "category_id", nullable = false)
     @JsonManagedReference
@@ -0,0 +1,46 @@
+package com.riki.bookstore.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Serialized HyperLogLog sketch of the buyers for one day, either store-wide or for a single
+ * book or category. Sketches merge, so ranges and groups are answered by combining rows.
+ */
+@Entity
+@Table(name = "buyer_sketches",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"dimension", "dim_key", "stat_date"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BuyerSketch {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Dimension dimension;
+    
+    @Column(name = "dim_key", nullable = false)
+    private Long dimKey; // book or category ID; 0 for the store-wide sketch
+    
+    @Column(name = "stat_date", nullable = false)
+    private LocalDate statDate;
+    
+    @Column(nullable = false, columnDefinition = "BLOB")
+    private byte[] registers;
+    
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+    
+    public enum Dimension {
+        STORE, BOOK, CATEGORY
+    }
+}
@@ -9,7 +9,7 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "cart_items")
+@Table(name = "cart_items", indexes = @Index(name = "idx_cart_items_user_deleted_book", columnList = "user_id, is_deleted, book_id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
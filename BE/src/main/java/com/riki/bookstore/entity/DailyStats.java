@@ -0,0 +1,40 @@
+package com.riki.bookstore.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One row per calendar day with the counters the admin dashboard reports on.
+ * Incremented by the write paths and periodically recomputed from the source tables.
+ */
+@Entity
+@Table(name = "daily_stats")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyStats {
+    
+    @Id
+    private LocalDate statDate;
+    
+    @Column(nullable = false)
+    private long orderCount;
+    
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue = BigDecimal.ZERO;
+    
+    @Column(nullable = false)
+    private long newUsers;
+    
+    @Column(nullable = false)
+    private long newBooks;
+    
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
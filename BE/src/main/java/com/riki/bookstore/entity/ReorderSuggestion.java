@@ -0,0 +1,47 @@
+package com.riki.bookstore.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Restock recommendation for one book, written by the reorder batch job. The table is replaced
+ * wholesale on every run and only holds books that need reordering.
+ */
+@Entity
+@Table(name = "reorder_suggestions", indexes = {
+        @Index(name = "idx_reorder_suggestions_days_left", columnList = "days_of_stock_left, book_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReorderSuggestion {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false, unique = true)
+    private Long bookId;
+    
+    @Column(nullable = false)
+    private Integer stockQuantity;
+    
+    @Column(nullable = false)
+    private long unitsSold; // within the sales window
+    
+    @Column(nullable = false)
+    private double dailyVelocity;
+    
+    @Column(nullable = false)
+    private double daysOfStockLeft;
+    
+    @Column(nullable = false)
+    private Integer suggestedQuantity;
+    
+    @Column(nullable = false)
+    private LocalDateTime computedAt;
+}
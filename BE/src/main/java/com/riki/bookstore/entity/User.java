@@ -13,7 +13,12 @@ import java.util.Collection;
 import java.util.List;
 
 @Entity
-@Table(name = "users")
+// username and email are prefix-searchable through their unique indexes; these cover the other search fields
+@Table(name = "users", indexes = {
+        @Index(name = "idx_users_phone", columnList = "phone, id"),
+        @Index(name = "idx_users_full_name", columnList = "full_name, id"),
+        @Index(name = "idx_users_created", columnList = "created_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
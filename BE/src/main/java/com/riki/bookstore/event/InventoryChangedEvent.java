@@ -0,0 +1,20 @@
+package com.riki.bookstore.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+/**
+ * Published whenever a book's stock or price changes. The previous values are null for a newly
+ * created book and the new values are null for a deleted one.
+ */
+@Getter
+@AllArgsConstructor
+public class InventoryChangedEvent {
+    private final Long bookId;
+    private final Integer previousStock;
+    private final BigDecimal previousPrice;
+    private final Integer stock;
+    private final BigDecimal price;
+}
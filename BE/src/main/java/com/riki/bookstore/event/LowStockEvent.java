@@ -0,0 +1,19 @@
+package com.riki.bookstore.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published when a book's stock crosses the low-stock threshold, in either direction.
+ */
+@Getter
+@AllArgsConstructor
+public class LowStockEvent {
+    
+    public enum Type { ENTERED, LEFT }
+    
+    private final Long bookId;
+    private final String title;
+    private final Integer stock; // null when the book was deleted
+    private final Type type;
+}
@@ -0,0 +1,20 @@
+package com.riki.bookstore.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Published when a customer places an order; listeners see it once the order is committed.
+ */
+@Getter
+@AllArgsConstructor
+public class OrderPlacedEvent {
+    private final Long orderId;
+    private final String orderNumber;
+    private final Long userId;
+    private final BigDecimal totalAmount;
+    private final LocalDateTime createdAt;
+}
@@ -0,0 +1,21 @@
+package com.riki.bookstore.event;
+
+import com.riki.bookstore.entity.Order;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published after an order's status has been changed by an admin.
+ */
+@Getter
+@AllArgsConstructor
+public class OrderStatusChangedEvent {
+    private final Long orderId;
+    private final String orderNumber;
+    private final Long userId;
+    private final Order.OrderStatus previousStatus;
+    private final Order.OrderStatus status;
+    private final LocalDateTime updatedAt;
+}
@@ -0,0 +1,13 @@
+package com.riki.bookstore.exception;
+
+/**
+ * Rejected because of load or rate limits; reported as 429 so clients know to back off and retry.
+ */
+public class TooManyRequestsException extends RuntimeException {
+    
+    private static final long serialVersionUID = 1L;
+    
+    public TooManyRequestsException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,49 @@
+package com.riki.bookstore.repository;
+
+import com.riki.bookstore.dto.OrderItemResponse;
+import com.riki.bookstore.dto.OrderItemSummary;
+import com.riki.bookstore.dto.SalesFactRow;
+import com.riki.bookstore.entity.ArchivedOrderItem;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+public interface ArchivedOrderItemRepository extends JpaRepository<ArchivedOrderItem, Long> {
+    
+    boolean existsByBookId(Long bookId);
+    
+    @Query("SELECT new com.riki.bookstore.dto.OrderItemSummary(" +
+           "ai.orderId, ai.id, b.id, b.title, b.author, ai.quantity, ai.price, ai.createdAt, ai.updatedAt) " +
+           "FROM ArchivedOrderItem ai JOIN Book b ON b.id = ai.bookId WHERE ai.orderId IN :orderIds ORDER BY ai.id")
+    List<OrderItemSummary> findSummariesByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+    
+    @Query("SELECT new com.riki.bookstore.dto.OrderItemResponse(" +
+           "ai.id, b.id, b.title, b.author, b.coverImage, ai.quantity, ai.price, ai.createdAt, ai.updatedAt) " +
+           "FROM ArchivedOrderItem ai JOIN Book b ON b.id = ai.bookId WHERE ai.orderId = :orderId ORDER BY ai.id")
+    List<OrderItemResponse> findDetailsByOrderId(@Param("orderId") Long orderId);
+    
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.riki.bookstore.dto.SalesFactRow(b.id, b.category.id, b.author, o.createdAt, ai.quantity, ai.price) " +
+           "FROM ArchivedOrderItem ai JOIN ArchivedOrder o ON o.id = ai.orderId JOIN Book b ON b.id = ai.bookId")
+    Stream<SalesFactRow> streamSalesFacts();
+    
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT o.userId, o.createdAt, b.id, b.category.id FROM ArchivedOrderItem ai " +
+           "JOIN ArchivedOrder o ON o.id = ai.orderId JOIN Book b ON b.id = ai.bookId ORDER BY o.createdAt")
+    Stream<Object[]> streamBuyerFacts();
+}
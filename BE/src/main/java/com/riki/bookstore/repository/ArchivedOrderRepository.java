@@ -0,0 +1,77 @@
+package com.riki.bookstore.repository;
+
+import com.riki.bookstore.dto.OrderExportRow;
+import com.riki.bookstore.entity.ArchivedOrder;
+import com.riki.bookstore.entity.Order;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+@Repository
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, Long> {
+    
+    Optional<ArchivedOrder> findByOrderNumber(String orderNumber);
+    
+    // Same keyset as OrderRepository.findHistoryPage, so the two can be merged page by page
+    @Query("SELECT o FROM ArchivedOrder o WHERE o.userId = :userId " +
+           "AND (:afterCreatedAt IS NULL OR o.createdAt < :afterCreatedAt " +
+           "OR (o.createdAt = :afterCreatedAt AND o.id < :afterId)) " +
+           "ORDER BY o.createdAt DESC, o.id DESC")
+    List<ArchivedOrder> findHistoryPage(@Param("userId") Long userId,
+                                        @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                        @Param("afterId") Long afterId,
+                                        Pageable pageable);
+    
+    @Query("SELECT COALESCE(SUM(o.totalAmount), 0) FROM ArchivedOrder o")
+    BigDecimal calculateTotalRevenue();
+    
+    // Archival batch: copy rows as-is from the hot tables, then delete them there
+    @Modifying
+    @Query(value = "INSERT INTO orders_archive (id, order_number, user_id, recipient_name, recipient_phone, " +
+                   "recipient_address, total_amount, status, notes, created_at, updated_at, archived_at) " +
+                   "SELECT id, order_number, user_id, recipient_name, recipient_phone, recipient_address, " +
+                   "total_amount, status, notes, created_at, updated_at, :archivedAt FROM orders WHERE id IN :ids",
+           nativeQuery = true)
+    int copyOrders(@Param("ids") Collection<Long> ids, @Param("archivedAt") LocalDateTime archivedAt);
+    
+    @Modifying
+    @Query(value = "INSERT INTO order_items_archive (id, order_id, book_id, quantity, price, created_at, updated_at) " +
+                   "SELECT id, order_id, book_id, quantity, price, created_at, updated_at " +
+                   "FROM order_items WHERE order_id IN :ids",
+           nativeQuery = true)
+    int copyOrderItems(@Param("ids") Collection<Long> ids);
+    
+    @Modifying
+    @Query("DELETE FROM OrderItem oi WHERE oi.order.id IN :ids")
+    int deleteHotOrderItems(@Param("ids") Collection<Long> ids);
+    
+    @Modifying
+    @Query("DELETE FROM Order o WHERE o.id IN :ids")
+    int deleteHotOrders(@Param("ids") Collection<Long> ids);
+    
+    // Forward-only export cursor; MIN_VALUE makes MySQL Connector/J stream rows instead of buffering them
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.riki.bookstore.dto.OrderExportRow(o.id, o.orderNumber, o.userId, o.recipientName, " +
+           "o.recipientPhone, o.recipientAddress, o.totalAmount, o.status, o.notes, o.createdAt, o.updatedAt) " +
+           "FROM ArchivedOrder o WHERE o.createdAt >= :from AND o.createdAt < :to " +
+           "AND (:status IS NULL OR o.status = :status) ORDER BY o.id")
+    Stream<OrderExportRow> streamForExport(@Param("from") LocalDateTime from,
+                                           @Param("to") LocalDateTime to,
+                                           @Param("status") Order.OrderStatus status);
+}
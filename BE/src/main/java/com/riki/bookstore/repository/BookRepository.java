@@ -1,16 +1,20 @@
 package com.riki.bookstore.repository;
 
+import com.riki.bookstore.dto.LowStockBookResponse;
 import com.riki.bookstore.entity.Book;
 import com.riki.bookstore.entity.Category;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface BookRepository extends JpaRepository<Book, Long> {
@@ -32,10 +36,6 @@ public interface BookRepository extends JpaRepository<Book, Long> {
                                        @Param("keyword") String keyword, 
                                        Pageable pageable);
     
-    List<Book> findByStockQuantityLessThanEqual(Integer quantity);
-    
-    Page<Book> findByStockQuantityLessThanEqual(Integer quantity, Pageable pageable);
-    
     int countByStockQuantityLessThan(Integer quantity);
     
     long countByCategoryId(Long categoryId);
@@ -61,6 +61,38 @@ public interface BookRepository extends JpaRepository<Book, Long> {
     @Query("SELECT COUNT(b) FROM Book b WHERE b.createdAt >= :startDate")
     long countBooksCreatedAfter(@Param("startDate") java.time.LocalDateTime startDate);
     
-    @Query("SELECT b FROM Book b WHERE b.stockQuantity <= 5 ORDER BY b.stockQuantity ASC")
-    List<Book> findLowStockBooks();
+    // Lowest stock first, read in (stock_quantity, id) index order without loading covers or descriptions
+    @Query("SELECT new com.riki.bookstore.dto.LowStockBookResponse(b.id, b.title, b.author, b.stockQuantity, c.name) " +
+           "FROM Book b JOIN b.category c WHERE b.stockQuantity <= :threshold ORDER BY b.stockQuantity, b.id")
+    List<LowStockBookResponse> findLowStock(@Param("threshold") int threshold, Pageable pageable);
+    
+    @Query("SELECT new com.riki.bookstore.dto.LowStockBookResponse(b.id, b.title, b.author, b.stockQuantity, c.name) " +
+           "FROM Book b JOIN b.category c WHERE b.id = :id")
+    Optional<LowStockBookResponse> findLowStockEntry(@Param("id") Long id);
+    
+    // Flash sale: (id, stockQuantity) pairs of books currently on sale
+    @Query("SELECT b.id, b.stockQuantity FROM Book b WHERE b.flashSale = true")
+    List<Object[]> findFlashSaleStock();
+    
+    // Reorder job: (id, stockQuantity) of every book in ID order
+    @Query("SELECT b.id, b.stockQuantity FROM Book b ORDER BY b.id")
+    List<Object[]> findAllStock();
+    
+    // Stock changes in place, so concurrent restocks and checkouts never overwrite each other's count
+    @Modifying
+    @Query("UPDATE Book b SET b.stockQuantity = b.stockQuantity + :quantity, b.updatedAt = :updatedAt WHERE b.id = :id")
+    int addStock(@Param("id") Long id, @Param("quantity") int quantity, @Param("updatedAt") LocalDateTime updatedAt);
+    
+    // Takes nothing (returns 0) when fewer than quantity are left
+    @Modifying
+    @Query("UPDATE Book b SET b.stockQuantity = b.stockQuantity - :quantity, b.updatedAt = :updatedAt " +
+           "WHERE b.id = :id AND b.stockQuantity >= :quantity")
+    int takeStock(@Param("id") Long id, @Param("quantity") int quantity, @Param("updatedAt") LocalDateTime updatedAt);
+    
+    @Query("SELECT b.stockQuantity FROM Book b WHERE b.id = :id")
+    Integer findStockById(@Param("id") Long id);
+    
+    // (id, title) pairs for labelling analytics results without loading cover images
+    @Query("SELECT b.id, b.title FROM Book b WHERE b.id IN :ids")
+    List<Object[]> findTitlesByIdIn(@Param("ids") java.util.Collection<Long> ids);
 }
@@ -0,0 +1,44 @@
+package com.riki.bookstore.repository;
+
+import com.riki.bookstore.entity.BuyerSketch;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BuyerSketchRepository extends JpaRepository<BuyerSketch, Long> {
+    
+    List<BuyerSketch> findByStatDateGreaterThanEqual(LocalDate from);
+    
+    List<BuyerSketch> findByDimensionAndDimKeyInAndStatDateBetween(BuyerSketch.Dimension dimension,
+                                                                  Collection<Long> dimKeys,
+                                                                  LocalDate from,
+                                                                  LocalDate to);
+    
+    boolean existsByDimensionAndDimKey(BuyerSketch.Dimension dimension, Long dimKey);
+    
+    // Returns 0 when the row already exists; the caller then merges into it under a row lock
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO buyer_sketches (dimension, dim_key, stat_date, registers, updated_at) " +
+                   "VALUES (:dimension, :dimKey, :statDate, :registers, NOW())",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("dimension") String dimension,
+                       @Param("dimKey") Long dimKey,
+                       @Param("statDate") LocalDate statDate,
+                       @Param("registers") byte[] registers);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM BuyerSketch s WHERE s.dimension = :dimension AND s.dimKey = :dimKey AND s.statDate = :statDate")
+    Optional<BuyerSketch> findForUpdate(@Param("dimension") BuyerSketch.Dimension dimension,
+                                        @Param("dimKey") Long dimKey,
+                                        @Param("statDate") LocalDate statDate);
+}
@@ -11,16 +11,16 @@ import java.util.Optional;
 @Repository
 public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     
-    List<CartItem> findByUserAndIsDeletedFalse(User user);
+    List<CartItem> findByUserIdAndIsDeletedFalse(Long userId);
     
-    Optional<CartItem> findByUserAndBookIdAndIsDeletedFalse(User user, Long bookId);
+    Optional<CartItem> findByUserIdAndBookIdAndIsDeletedFalse(Long userId, Long bookId);
     
     void deleteByUser(User user);
     
     // Soft delete methods
     @org.springframework.data.jpa.repository.Modifying
-    @org.springframework.data.jpa.repository.Query("UPDATE CartItem c SET c.isDeleted = true WHERE c.user = :user")
-    void softDeleteByUser(User user);
+    @org.springframework.data.jpa.repository.Query("UPDATE CartItem c SET c.isDeleted = true WHERE c.user.id = :userId")
+    void softDeleteByUserId(Long userId);
     
     @org.springframework.data.jpa.repository.Modifying
     @org.springframework.data.jpa.repository.Query("UPDATE CartItem c SET c.isDeleted = true WHERE c.id = :id")
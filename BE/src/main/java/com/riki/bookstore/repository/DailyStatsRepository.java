@@ -0,0 +1,80 @@
+package com.riki.bookstore.repository;
+
+import com.riki.bookstore.entity.DailyStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface DailyStatsRepository extends JpaRepository<DailyStats, LocalDate> {
+    
+    List<DailyStats> findByStatDateBetweenOrderByStatDate(LocalDate from, LocalDate to);
+    
+    List<DailyStats> findByStatDateGreaterThanEqual(LocalDate from);
+    
+    // Adds deltas to a day's counters, creating the row on first use
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO daily_stats (stat_date, order_count, revenue, new_users, new_books, updated_at) " +
+                   "VALUES (:statDate, :orders, :revenue, :users, :books, NOW()) " +
+                   "ON DUPLICATE KEY UPDATE order_count = order_count + VALUES(order_count), " +
+                   "revenue = revenue + VALUES(revenue), new_users = new_users + VALUES(new_users), " +
+                   "new_books = new_books + VALUES(new_books), updated_at = NOW()",
+           nativeQuery = true)
+    int increment(@Param("statDate") LocalDate statDate,
+                  @Param("orders") long orders,
+                  @Param("revenue") BigDecimal revenue,
+                  @Param("users") long users,
+                  @Param("books") long books);
+    
+    // Overwrites a day's counters with values recomputed from the source tables
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO daily_stats (stat_date, order_count, revenue, new_users, new_books, updated_at) " +
+                   "VALUES (:statDate, :orders, :revenue, :users, :books, NOW()) " +
+                   "ON DUPLICATE KEY UPDATE order_count = VALUES(order_count), revenue = VALUES(revenue), " +
+                   "new_users = VALUES(new_users), new_books = VALUES(new_books), updated_at = NOW()",
+           nativeQuery = true)
+    int replace(@Param("statDate") LocalDate statDate,
+                @Param("orders") long orders,
+                @Param("revenue") BigDecimal revenue,
+                @Param("users") long users,
+                @Param("books") long books);
+    
+    // Backfill sources, grouped by day: [day, count(, revenue)]
+    @Query(value = "SELECT DATE(created_at) AS day, COUNT(*), COALESCE(SUM(total_amount), 0) FROM (" +
+                   "SELECT created_at, total_amount FROM orders WHERE created_at >= :from AND created_at < :to " +
+                   "UNION ALL " +
+                   "SELECT created_at, total_amount FROM orders_archive WHERE created_at >= :from AND created_at < :to" +
+                   ") o GROUP BY day", nativeQuery = true)
+    List<Object[]> aggregateOrdersByDay(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    @Query(value = "SELECT DATE(created_at) AS day, COUNT(*) FROM users " +
+                   "WHERE created_at >= :from AND created_at < :to GROUP BY day", nativeQuery = true)
+    List<Object[]> aggregateUsersByDay(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    @Query(value = "SELECT DATE(created_at) AS day, COUNT(*) FROM books " +
+                   "WHERE created_at >= :from AND created_at < :to GROUP BY day", nativeQuery = true)
+    List<Object[]> aggregateBooksByDay(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    // Earliest activity per source table, to know where a full backfill has to start
+    @Query("SELECT MIN(o.createdAt) FROM Order o")
+    LocalDateTime findFirstOrderCreatedAt();
+    
+    @Query("SELECT MIN(o.createdAt) FROM ArchivedOrder o")
+    LocalDateTime findFirstArchivedOrderCreatedAt();
+    
+    @Query("SELECT MIN(u.createdAt) FROM User u")
+    LocalDateTime findFirstUserCreatedAt();
+    
+    @Query("SELECT MIN(b.createdAt) FROM Book b")
+    LocalDateTime findFirstBookCreatedAt();
+}
@@ -1,10 +1,66 @@
 package com.riki.bookstore.repository;
 
+import com.riki.bookstore.dto.OrderItemResponse;
+import com.riki.bookstore.dto.OrderItemSummary;
+import com.riki.bookstore.dto.SalesFactRow;
+import com.riki.bookstore.entity.Order;
 import com.riki.bookstore.entity.OrderItem;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     
+    // Items of a whole page of orders in one query, without cover images
+    @Query("SELECT new com.riki.bookstore.dto.OrderItemSummary(" +
+           "oi.order.id, oi.id, b.id, b.title, b.author, oi.quantity, oi.price, oi.createdAt, oi.updatedAt) " +
+           "FROM OrderItem oi JOIN oi.book b WHERE oi.order.id IN :orderIds ORDER BY oi.id")
+    List<OrderItemSummary> findSummariesByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+    
+    // Items of a single order including cover images, for the detail view
+    @Query("SELECT new com.riki.bookstore.dto.OrderItemResponse(" +
+           "oi.id, b.id, b.title, b.author, b.coverImage, oi.quantity, oi.price, oi.createdAt, oi.updatedAt) " +
+           "FROM OrderItem oi JOIN oi.book b WHERE oi.order.id = :orderId ORDER BY oi.id")
+    List<OrderItemResponse> findDetailsByOrderId(@Param("orderId") Long orderId);
+    
+    // Sales analytics facts: full load (streamed) and the lines of one newly placed order
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.riki.bookstore.dto.SalesFactRow(b.id, b.category.id, b.author, o.createdAt, oi.quantity, oi.price) " +
+           "FROM OrderItem oi JOIN oi.order o JOIN oi.book b WHERE o.id <= :maxOrderId")
+    Stream<SalesFactRow> streamSalesFacts(@Param("maxOrderId") Long maxOrderId);
+    
+    @Query("SELECT new com.riki.bookstore.dto.SalesFactRow(b.id, b.category.id, b.author, o.createdAt, oi.quantity, oi.price) " +
+           "FROM OrderItem oi JOIN oi.order o JOIN oi.book b WHERE o.id = :orderId")
+    List<SalesFactRow> findSalesFactsByOrderId(@Param("orderId") Long orderId);
+    
+    // Buyer sketch backfill, oldest first: [userId, createdAt, bookId, categoryId]
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT o.user.id, o.createdAt, b.id, b.category.id FROM OrderItem oi JOIN oi.order o JOIN oi.book b " +
+           "ORDER BY o.createdAt")
+    Stream<Object[]> streamBuyerFacts();
+    
+    // Reorder job: next chunk of (id, bookId, quantity) after a keyset position, in primary key order
+    @Query("SELECT oi.id, oi.book.id, oi.quantity FROM OrderItem oi JOIN oi.order o " +
+           "WHERE oi.id > :afterId AND oi.createdAt >= :since AND o.status <> :excludedStatus ORDER BY oi.id")
+    List<Object[]> findSalesChunk(@Param("afterId") long afterId,
+                                  @Param("since") LocalDateTime since,
+                                  @Param("excludedStatus") Order.OrderStatus excludedStatus,
+                                  Pageable pageable);
 }
@@ -1,23 +1,41 @@
 package com.riki.bookstore.repository;
 
+import com.riki.bookstore.dto.OrderExportRow;
 import com.riki.bookstore.entity.Order;
 import com.riki.bookstore.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
     
     Page<Order> findByUser(User user, Pageable pageable);
     
+    // Order history page, newest first, keyset-paginated on (createdAt, id); a null afterCreatedAt starts at the newest
+    @Query("SELECT o FROM Order o WHERE o.user.id = :userId " +
+           "AND (:afterCreatedAt IS NULL OR o.createdAt < :afterCreatedAt " +
+           "OR (o.createdAt = :afterCreatedAt AND o.id < :afterId)) " +
+           "ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findHistoryPage(@Param("userId") Long userId,
+                                @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                @Param("afterId") Long afterId,
+                                Pageable pageable);
+    
     Optional<Order> findByOrderNumber(String orderNumber);
     
     Page<Order> findByStatus(Order.OrderStatus status, Pageable pageable);
@@ -37,4 +55,46 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     
     @Query("SELECT o FROM Order o ORDER BY o.createdAt DESC")
     List<Order> findRecentOrders(Pageable pageable);
+    
+    // Bulk status transitions: (id, status, userId, orderNumber) rows without loading entities
+    @Query("SELECT o.id, o.status, o.user.id, o.orderNumber FROM Order o WHERE o.id IN :ids")
+    List<Object[]> findStatusesByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :status, o.updatedAt = :updatedAt " +
+           "WHERE o.id IN :ids AND o.status = :currentStatus")
+    int updateStatus(@Param("ids") Collection<Long> ids,
+                     @Param("currentStatus") Order.OrderStatus currentStatus,
+                     @Param("status") Order.OrderStatus status,
+                     @Param("updatedAt") LocalDateTime updatedAt);
+    
+    // Archival: oldest finished orders first
+    @Query("SELECT o.id FROM Order o WHERE o.status IN :statuses AND o.createdAt < :cutoff ORDER BY o.id")
+    List<Long> findIdsForArchive(@Param("statuses") Collection<Order.OrderStatus> statuses,
+                                 @Param("cutoff") LocalDateTime cutoff,
+                                 Pageable pageable);
+    
+    // Forward-only export cursor; MIN_VALUE makes MySQL Connector/J stream rows instead of buffering them
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.riki.bookstore.dto.OrderExportRow(o.id, o.orderNumber, o.user.id, o.recipientName, " +
+           "o.recipientPhone, o.recipientAddress, o.totalAmount, o.status, o.notes, o.createdAt, o.updatedAt) " +
+           "FROM Order o WHERE o.createdAt >= :from AND o.createdAt < :to " +
+           "AND (:status IS NULL OR o.status = :status) ORDER BY o.id")
+    Stream<OrderExportRow> streamForExport(@Param("from") LocalDateTime from,
+                                           @Param("to") LocalDateTime to,
+                                           @Param("status") Order.OrderStatus status);
+    
+    @Query("SELECT COALESCE(MAX(o.id), 0) FROM Order o")
+    Long findMaxId();
+    
+    @Query("SELECT o.id FROM Order o WHERE o.id IN :ids")
+    List<Long> findIdsByIdIn(@Param("ids") Collection<Long> ids);
+    
+    // Per-minute order count and revenue, used to rebuild the in-memory sales time series: [minute, count, revenue]
+    @Query(value = "SELECT DATE_FORMAT(created_at, '%Y%m%d%H%i') AS minute, COUNT(*), COALESCE(SUM(total_amount), 0) " +
+                   "FROM orders WHERE created_at >= :from GROUP BY minute", nativeQuery = true)
+    List<Object[]> aggregateByMinuteSince(@Param("from") LocalDateTime from);
 }
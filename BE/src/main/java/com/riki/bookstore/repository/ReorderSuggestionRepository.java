@@ -0,0 +1,22 @@
+package com.riki.bookstore.repository;
+
+import com.riki.bookstore.dto.ReorderSuggestionResponse;
+import com.riki.bookstore.entity.ReorderSuggestion;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ReorderSuggestionRepository extends JpaRepository<ReorderSuggestion, Long> {
+    
+    // Most urgent first
+    @Query(value = "SELECT new com.riki.bookstore.dto.ReorderSuggestionResponse(" +
+                   "r.bookId, b.title, b.author, r.stockQuantity, r.unitsSold, r.dailyVelocity, " +
+                   "r.daysOfStockLeft, r.suggestedQuantity, r.computedAt) " +
+                   "FROM ReorderSuggestion r JOIN Book b ON b.id = r.bookId " +
+                   "ORDER BY r.daysOfStockLeft, r.bookId",
+           countQuery = "SELECT COUNT(r) FROM ReorderSuggestion r")
+    Page<ReorderSuggestionResponse> findAllWithBooks(Pageable pageable);
+}
@@ -4,10 +4,13 @@ import com.riki.bookstore.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,21 +19,66 @@ public interface UserRepository extends JpaRepository<User, Long> {
     
     Optional<User> findByUsername(String username);
     
+    // Account status check for token-authenticated requests
+    @Query("SELECT u.enabled FROM User u WHERE u.id = :id")
+    Optional<Boolean> findEnabledById(@Param("id") Long id);
+    
+    // Rehash-on-login: replaces a stored hash weaker than the configured BCrypt strength
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :password WHERE u.username = :username")
+    int updatePassword(@Param("username") String username, @Param("password") String password);
+    
     Optional<User> findByEmail(String email);
     
     boolean existsByUsername(String username);
     
     boolean existsByEmail(String email);
     
+    // Set-based uniqueness checks for bulk imports
+    @Query("SELECT u.username FROM User u WHERE u.username IN :usernames")
+    List<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+    
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+    
     List<User> findByRole(User.Role role);
     
     Page<User> findByRole(User.Role role, Pageable pageable);
     
     // Statistics methods
-    long countByEnabledTrue();
-    
     long countByRole(User.Role role);
     
+    // Account counts for the admin user list in one pass, as (role, enabled, count) rows
+    @Query("SELECT u.role, u.enabled, COUNT(u) FROM User u GROUP BY u.role, u.enabled")
+    List<Object[]> countGroupedByRoleAndEnabled();
+    
+    // Prefix search, keyset-paginated on (column, id) so each page is a range scan of the column's index.
+    // The cursor is the last row of the previous page; a null afterValue starts from the beginning.
+    @Query("SELECT u FROM User u WHERE u.username LIKE :prefix ESCAPE '!' " +
+           "AND (:afterValue IS NULL OR u.username > :afterValue OR (u.username = :afterValue AND u.id > :afterId)) " +
+           "ORDER BY u.username, u.id")
+    List<User> searchByUsername(@Param("prefix") String prefix, @Param("afterValue") String afterValue,
+                                @Param("afterId") Long afterId, Pageable pageable);
+    
+    @Query("SELECT u FROM User u WHERE u.email LIKE :prefix ESCAPE '!' " +
+           "AND (:afterValue IS NULL OR u.email > :afterValue OR (u.email = :afterValue AND u.id > :afterId)) " +
+           "ORDER BY u.email, u.id")
+    List<User> searchByEmail(@Param("prefix") String prefix, @Param("afterValue") String afterValue,
+                             @Param("afterId") Long afterId, Pageable pageable);
+    
+    @Query("SELECT u FROM User u WHERE u.phone LIKE :prefix ESCAPE '!' " +
+           "AND (:afterValue IS NULL OR u.phone > :afterValue OR (u.phone = :afterValue AND u.id > :afterId)) " +
+           "ORDER BY u.phone, u.id")
+    List<User> searchByPhone(@Param("prefix") String prefix, @Param("afterValue") String afterValue,
+                             @Param("afterId") Long afterId, Pageable pageable);
+    
+    @Query("SELECT u FROM User u WHERE u.fullName LIKE :prefix ESCAPE '!' " +
+           "AND (:afterValue IS NULL OR u.fullName > :afterValue OR (u.fullName = :afterValue AND u.id > :afterId)) " +
+           "ORDER BY u.fullName, u.id")
+    List<User> searchByFullName(@Param("prefix") String prefix, @Param("afterValue") String afterValue,
+                                @Param("afterId") Long afterId, Pageable pageable);
+    
     // Dashboard statistics methods
     @Query("SELECT COUNT(u) FROM User u WHERE u.createdAt >= :startDate")
     long countUsersCreatedAfter(@Param("startDate") java.time.LocalDateTime startDate);
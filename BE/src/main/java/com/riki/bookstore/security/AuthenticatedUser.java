@@ -0,0 +1,24 @@
+package com.riki.bookstore.security;
+
+import com.riki.bookstore.entity.User;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.security.Principal;
+import java.util.List;
+
+/**
+ * Principal built from the claims of a verified access token, so authenticating a request does not
+ * load the {@link User} entity. {@code getName()} is the username, as it was with the entity principal.
+ */
+public record AuthenticatedUser(Long id, String username, User.Role role) implements Principal {
+    
+    @Override
+    public String getName() {
+        return username;
+    }
+    
+    public List<GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+}
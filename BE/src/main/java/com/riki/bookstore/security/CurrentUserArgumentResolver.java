@@ -0,0 +1,46 @@
+package com.riki.bookstore.security;
+
+import com.riki.bookstore.entity.User;
+import org.springframework.core.MethodParameter;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * Resolves {@link CurrentUser} parameters from the principal the authentication filter put in the
+ * security context: an {@link AuthenticatedUser}, or the {@link User} entity for older tokens.
+ */
+@Component
+public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolver {
+    
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        Class<?> type = parameter.getParameterType();
+        return parameter.hasParameterAnnotation(CurrentUser.class)
+                && (type == AuthenticatedUser.class || type == Long.class);
+    }
+    
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        AuthenticatedUser user = currentUser();
+        return parameter.getParameterType() == Long.class ? user.id() : user;
+    }
+    
+    private AuthenticatedUser currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        Object principal = authentication != null ? authentication.getPrincipal() : null;
+        
+        if (principal instanceof AuthenticatedUser user) {
+            return user;
+        }
+        if (principal instanceof User user) {
+            return new AuthenticatedUser(user.getId(), user.getUsername(), user.getRole());
+        }
+        throw new RuntimeException("User not found");
+    }
+}
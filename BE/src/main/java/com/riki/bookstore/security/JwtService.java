@@ -1,6 +1,8 @@
 package com.riki.bookstore.security;
 
+import com.riki.bookstore.entity.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
@@ -9,20 +11,49 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Service
 public class JwtService {
     
-    @Value("${jwt.secret}")
-    private String secretKey;
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String ROLE_CLAIM = "role";
     
-    @Value("${jwt.expiration}")
-    private long jwtExpiration;
+    // Decoded and built once; both are immutable and thread-safe
+    private final Key signingKey;
+    private final JwtParser parser;
+    private final long jwtExpiration;
+    
+    // Recently verified tokens, keyed by token hash (LRU, access order); null when disabled
+    private final Map<String, VerifiedToken> verifiedTokens;
+    
+    public JwtService(
+            @Value("${jwt.secret}") String secretKey,
+            @Value("${jwt.expiration}") long jwtExpiration,
+            @Value("${jwt.verified-cache-size:1000}") int verifiedCacheSize
+    ) {
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        this.jwtExpiration = jwtExpiration;
+        this.verifiedTokens = verifiedCacheSize > 0
+                ? new LinkedHashMap<>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, VerifiedToken> eldest) {
+                        return size() > verifiedCacheSize;
+                    }
+                }
+                : null;
+    }
     
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
@@ -37,6 +68,14 @@ public class JwtService {
         return generateToken(new HashMap<>(), userDetails);
     }
     
+    // Carries the user ID and role so requests can be authenticated without loading the user
+    public String generateToken(User user) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(USER_ID_CLAIM, user.getId());
+        claims.put(ROLE_CLAIM, user.getRole().name());
+        return generateToken(claims, user);
+    }
+    
     public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
         return buildToken(extraClaims, userDetails, jwtExpiration);
     }
@@ -50,36 +89,81 @@ public class JwtService {
                 .builder()
                 .setClaims(extraClaims)
                 .setSubject(userDetails.getUsername())
+                .setId(UUID.randomUUID().toString()) // lets a single token be revoked
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
     
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+    /**
+     * Verifies the token and returns its claims. Throws if the signature is invalid or the token has expired.
+     */
+    public Claims extractAllClaims(String token) {
+        return parser.parseClaimsJws(token).getBody();
     }
     
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    /**
+     * Verifies the token and returns what requests need from it. Throws if the signature is invalid or the
+     * token has expired. Results are cached until the token expires; the cached value is immutable, so it is
+     * safe to hand the same instance to concurrent requests.
+     */
+    public VerifiedToken verify(String token) {
+        if (verifiedTokens == null) {
+            return toVerifiedToken(extractAllClaims(token));
+        }
+        
+        String key = hash(token);
+        VerifiedToken cached;
+        synchronized (verifiedTokens) {
+            cached = verifiedTokens.get(key);
+        }
+        if (cached != null && !cached.isExpired(System.currentTimeMillis())) {
+            return cached;
+        }
+        
+        // Expired entries fall through to the parser, which rejects them
+        VerifiedToken verified = toVerifiedToken(extractAllClaims(token));
+        synchronized (verifiedTokens) {
+            verifiedTokens.put(key, verified);
+        }
+        return verified;
     }
     
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    public AuthenticatedUser extractAuthenticatedUser(String token) {
+        return verify(token).user();
     }
     
-    private Claims extractAllClaims(String token) {
-        return Jwts
-                .parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    private VerifiedToken toVerifiedToken(Claims claims) {
+        return new VerifiedToken(claims.getId(), claims.getSubject(), claims.getExpiration().getTime(),
+                toAuthenticatedUser(claims));
+    }
+    
+    // Null when the token predates the user ID and role claims
+    private AuthenticatedUser toAuthenticatedUser(Claims claims) {
+        Number userId = claims.get(USER_ID_CLAIM, Number.class);
+        String role = claims.get(ROLE_CLAIM, String.class);
+        if (userId == null || role == null) {
+            return null;
+        }
+        return new AuthenticatedUser(userId.longValue(), claims.getSubject(), User.Role.valueOf(role));
+    }
+    
+    public long getJwtExpiration() {
+        return jwtExpiration;
+    }
+    
+    public boolean isTokenValid(String token, UserDetails userDetails) {
+        // Parsing already rejects expired tokens
+        return extractUsername(token).equals(userDetails.getUsername());
     }
     
-    private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 }
@@ -0,0 +1,125 @@
+package com.riki.bookstore.security;
+
+import com.riki.bookstore.exception.TooManyRequestsException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token buckets per client IP and per username, checked before any password hashing so excess login
+ * attempts cost almost nothing. Each bucket holds {@code burst} attempts and refills at
+ * {@code per-minute} attempts per minute; buckets that have refilled completely are dropped.
+ * Every attempt is charged to its IP, but only failed ones to the username, so a user who keeps
+ * logging in successfully never exhausts their own account's bucket.
+ */
+@Component
+public class LoginRateLimiter {
+    
+    private final Map<String, Bucket> ipBuckets = new ConcurrentHashMap<>();
+    private final Map<String, Bucket> usernameBuckets = new ConcurrentHashMap<>();
+    private final LongAdder limitedByIp = new LongAdder();
+    private final LongAdder limitedByUsername = new LongAdder();
+    
+    private final int ipBurst;
+    private final double ipRefillPerNano;
+    private final int usernameBurst;
+    private final double usernameRefillPerNano;
+    
+    public LoginRateLimiter(
+            @Value("${auth.rate-limit.ip.burst:20}") int ipBurst,
+            @Value("${auth.rate-limit.ip.per-minute:10}") int ipPerMinute,
+            @Value("${auth.rate-limit.username.burst:5}") int usernameBurst,
+            @Value("${auth.rate-limit.username.per-minute:5}") int usernamePerMinute
+    ) {
+        this.ipBurst = ipBurst;
+        this.ipRefillPerNano = ipPerMinute / 60e9;
+        this.usernameBurst = usernameBurst;
+        this.usernameRefillPerNano = usernamePerMinute / 60e9;
+    }
+    
+    public void checkLoginAttempt(String clientIp, String username) {
+        long now = System.nanoTime();
+        if (!ipBuckets.computeIfAbsent(clientIp, k -> new Bucket(ipBurst, now)).tryTake(ipBurst, ipRefillPerNano, now)) {
+            limitedByIp.increment();
+            throw new TooManyRequestsException("Too many login attempts, please try again later");
+        }
+        Bucket usernameBucket = usernameBuckets.get(usernameKey(username));
+        if (usernameBucket != null && !usernameBucket.hasToken(usernameBurst, usernameRefillPerNano, now)) {
+            limitedByUsername.increment();
+            throw new TooManyRequestsException("Too many login attempts for this account, please try again later");
+        }
+    }
+    
+    /**
+     * Charges a rejected password to the username's bucket.
+     */
+    public void recordFailedLogin(String username) {
+        long now = System.nanoTime();
+        usernameBuckets.computeIfAbsent(usernameKey(username), k -> new Bucket(usernameBurst, now))
+                .tryTake(usernameBurst, usernameRefillPerNano, now);
+    }
+    
+    public long getLimitedByIp() {
+        return limitedByIp.sum();
+    }
+    
+    public long getLimitedByUsername() {
+        return limitedByUsername.sum();
+    }
+    
+    public int getTrackedBuckets() {
+        return ipBuckets.size() + usernameBuckets.size();
+    }
+    
+    private static String usernameKey(String username) {
+        return username == null ? "" : username.toLowerCase(Locale.ROOT);
+    }
+    
+    @Scheduled(fixedDelay = 60_000)
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        ipBuckets.values().removeIf(bucket -> bucket.isFull(ipBurst, ipRefillPerNano, now));
+        usernameBuckets.values().removeIf(bucket -> bucket.isFull(usernameBurst, usernameRefillPerNano, now));
+    }
+    
+    private static class Bucket {
+        private double tokens;
+        private long refilledAt;
+        
+        Bucket(int capacity, long now) {
+            this.tokens = capacity;
+            this.refilledAt = now;
+        }
+        
+        synchronized boolean tryTake(int capacity, double refillPerNano, long now) {
+            refill(capacity, refillPerNano, now);
+            if (tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+        
+        synchronized boolean hasToken(int capacity, double refillPerNano, long now) {
+            refill(capacity, refillPerNano, now);
+            return tokens >= 1;
+        }
+        
+        synchronized boolean isFull(int capacity, double refillPerNano, long now) {
+            refill(capacity, refillPerNano, now);
+            return tokens >= capacity;
+        }
+        
+        private void refill(int capacity, double refillPerNano, long now) {
+            if (now > refilledAt) {
+                tokens = Math.min(capacity, tokens + (now - refilledAt) * refillPerNano);
+                refilledAt = now;
+            }
+        }
+    }
+}
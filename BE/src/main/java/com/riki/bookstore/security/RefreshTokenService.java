@@ -0,0 +1,182 @@
+package com.riki.bookstore.security;
+
+import com.riki.bookstore.entity.RefreshToken;
+import com.riki.bookstore.repository.RefreshTokenRepository;
+import io.jsonwebtoken.io.Decoders;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Opaque, rotating refresh tokens. Only a SHA-256 of each token is stored, so a leaked table cannot
+ * be replayed. A refresh consumes the presented token and returns its successor.
+ * <p>
+ * A successor is derived from its predecessor with an HMAC, so the server can hand the same successor
+ * out again without storing raw tokens: browser tabs that share a token and refresh at the same time
+ * all end up with it, instead of the second refresh looking like reuse and logging the user out.
+ */
+@Slf4j
+@Service
+public class RefreshTokenService {
+    
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final long refreshExpiration;
+    private final long reuseGraceMillis;
+    private final SecretKeySpec successorKey;
+    private final SecureRandom random = new SecureRandom();
+    
+    public RefreshTokenService(
+            RefreshTokenRepository refreshTokenRepository,
+            @Value("${jwt.secret}") String secretKey,
+            @Value("${jwt.refresh-expiration:2592000000}") long refreshExpiration,
+            @Value("${jwt.refresh-reuse-grace-ms:10000}") long reuseGraceMillis
+    ) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.successorKey = new SecretKeySpec(Decoders.BASE64.decode(secretKey), "HmacSHA256");
+        this.refreshExpiration = refreshExpiration;
+        this.reuseGraceMillis = reuseGraceMillis;
+    }
+    
+    /**
+     * Starts a new token family for a fresh login and returns the raw token for the client.
+     */
+    @Transactional
+    public String issue(Long userId) {
+        return create(userId, UUID.randomUUID().toString());
+    }
+    
+    /**
+     * Consumes a refresh token and issues its successor. Presenting a token again within
+     * {@code refresh-reuse-grace-ms} of its rotation returns the same successor; any other reuse of a
+     * consumed token revokes the whole family, logging out both the legitimate client and whoever replayed it.
+     */
+    @Transactional(noRollbackFor = RuntimeException.class)
+    public Rotation rotate(String rawToken) {
+        RefreshToken token = refreshTokenRepository.findByTokenHashForUpdate(hash(rawToken))
+                .orElseThrow(() -> new RuntimeException("Invalid refresh token"));
+        
+        LocalDateTime now = LocalDateTime.now();
+        if (token.getRevokedAt() != null) {
+            Optional<Rotation> concurrent = findRecentRotation(token, rawToken, now);
+            if (concurrent.isPresent()) {
+                return concurrent.get();
+            }
+            refreshTokenRepository.revokeFamily(token.getFamilyId(), now);
+            log.warn("Refresh token reuse detected for user {}, revoked token family {}", token.getUserId(), token.getFamilyId());
+            throw new RuntimeException("Invalid refresh token");
+        }
+        if (token.getExpiresAt().isBefore(now)) {
+            throw new RuntimeException("Refresh token has expired");
+        }
+        
+        token.setRevokedAt(now);
+        String successor = successorOf(rawToken);
+        save(token.getUserId(), successor, token.getFamilyId());
+        return new Rotation(token.getUserId(), successor);
+    }
+    
+    /**
+     * Revokes the token's family (logout); unknown tokens are ignored.
+     */
+    @Transactional
+    public void revoke(String rawToken) {
+        refreshTokenRepository.findByTokenHashForUpdate(hash(rawToken))
+                .ifPresent(token -> refreshTokenRepository.revokeFamily(token.getFamilyId(), LocalDateTime.now()));
+    }
+    
+    @Transactional
+    public void revokeAll(Long userId) {
+        refreshTokenRepository.revokeAllByUserId(userId, LocalDateTime.now());
+    }
+    
+    public long getRefreshExpiration() {
+        return refreshExpiration;
+    }
+    
+    @Transactional
+    @Scheduled(cron = "${jwt.refresh-purge-cron:0 15 3 * * *}")
+    public void purgeExpired() {
+        int deleted = refreshTokenRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("Purged {} expired refresh tokens", deleted);
+        }
+    }
+    
+    /**
+     * Follows the successors of a consumed token to the live one, as long as each was rotated within the
+     * grace window. Empty when the chain ends in a token revoked by logout or reuse, or a rotation is too old.
+     */
+    private Optional<Rotation> findRecentRotation(RefreshToken token, String rawToken, LocalDateTime now) {
+        LocalDateTime graceStart = now.minus(Duration.ofMillis(reuseGraceMillis));
+        RefreshToken current = token;
+        String currentRaw = rawToken;
+        while (current.getRevokedAt() != null) {
+            if (current.getRevokedAt().isBefore(graceStart)) {
+                return Optional.empty();
+            }
+            currentRaw = successorOf(currentRaw);
+            Optional<RefreshToken> successor = refreshTokenRepository.findByTokenHash(hash(currentRaw));
+            if (successor.isEmpty()) {
+                return Optional.empty();
+            }
+            current = successor.get();
+        }
+        return current.getExpiresAt().isBefore(now)
+                ? Optional.empty()
+                : Optional.of(new Rotation(current.getUserId(), currentRaw));
+    }
+    
+    private String create(Long userId, String familyId) {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        save(userId, rawToken, familyId);
+        return rawToken;
+    }
+    
+    private void save(Long userId, String rawToken, String familyId) {
+        LocalDateTime now = LocalDateTime.now();
+        refreshTokenRepository.save(new RefreshToken(null, userId, hash(rawToken), familyId,
+                now.plus(Duration.ofMillis(refreshExpiration)), now, null));
+    }
+    
+    // Unpredictable without the server secret, and reproducible from the predecessor alone
+    private String successorOf(String rawToken) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(successorKey);
+            byte[] successor = mac.doFinal(("refresh-successor:" + rawToken).getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(successor);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+    
+    private String hash(String rawToken) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(rawToken.getBytes(StandardCharsets.US_ASCII));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    public record Rotation(Long userId, String refreshToken) {
+    }
+}
@@ -0,0 +1,125 @@
+package com.riki.bookstore.security;
+
+import com.riki.bookstore.entity.RevokedToken;
+import com.riki.bookstore.repository.RevokedTokenRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Access-token revocation list. Every authenticated request asks {@link #isRevoked}, which for a
+ * token that was never revoked is answered by an in-memory Bloom filter without touching the
+ * database; only a filter hit (a revoked token or a rare false positive) is confirmed against
+ * revoked_tokens. Revocations made on other instances are picked up every {@code poll-interval-ms},
+ * and the filter is rebuilt from the unexpired rows on {@code rebuild-cron} so expired entries drop out.
+ * <p>
+ * Each sync re-reads everything revoked since the previous one started, minus {@code sync-overlap-ms}.
+ * Paging by ID would miss a row whose transaction got its ID first but committed after a later one;
+ * the overlap also absorbs clock skew between instances. Adding a jti twice is harmless.
+ */
+@Slf4j
+@Component
+public class TokenRevocationService {
+    
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    private final Duration syncOverlap;
+    
+    private final Object syncLock = new Object();
+    private volatile BloomFilter filter;
+    private LocalDateTime lastSyncStartedAt; // guarded by syncLock
+    
+    private final LongAdder confirmedLookups = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+    
+    public TokenRevocationService(
+            RevokedTokenRepository revokedTokenRepository,
+            @Value("${security.revocation.expected-insertions:100000}") long expectedInsertions,
+            @Value("${security.revocation.false-positive-rate:0.001}") double falsePositiveRate,
+            @Value("${security.revocation.sync-overlap-ms:60000}") long syncOverlapMillis
+    ) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.syncOverlap = Duration.ofMillis(syncOverlapMillis);
+    }
+    
+    @PostConstruct
+    public void load() {
+        rebuild();
+    }
+    
+    public boolean isRevoked(String jti) {
+        if (jti == null || !filter.mightContain(jti)) {
+            return false;
+        }
+        confirmedLookups.increment();
+        boolean revoked = revokedTokenRepository.existsByJti(jti);
+        if (!revoked) {
+            falsePositives.increment();
+        }
+        return revoked;
+    }
+    
+    public void revoke(String jti, LocalDateTime expiresAt) {
+        if (jti == null || !expiresAt.isAfter(LocalDateTime.now())) {
+            return;
+        }
+        try {
+            revokedTokenRepository.save(new RevokedToken(null, jti, expiresAt, LocalDateTime.now()));
+        } catch (DataIntegrityViolationException e) {
+            // Already revoked
+        }
+        filter.add(jti);
+    }
+    
+    @Scheduled(fixedDelayString = "${security.revocation.poll-interval-ms:5000}")
+    public void syncRevocations() {
+        synchronized (syncLock) {
+            LocalDateTime startedAt = LocalDateTime.now();
+            List<String> jtis = revokedTokenRepository.findActiveRevokedSince(lastSyncStartedAt.minus(syncOverlap), startedAt);
+            BloomFilter current = filter;
+            for (String jti : jtis) {
+                current.add(jti);
+            }
+            lastSyncStartedAt = startedAt;
+        }
+    }
+    
+    @Scheduled(cron = "${security.revocation.rebuild-cron:0 0 * * * *}")
+    public void rebuild() {
+        synchronized (syncLock) {
+            LocalDateTime startedAt = LocalDateTime.now();
+            int purged = revokedTokenRepository.deleteExpired(startedAt);
+            List<String> jtis = revokedTokenRepository.findActiveJtis(startedAt);
+            
+            // Sized with headroom so the false-positive rate holds until the next rebuild
+            BloomFilter rebuilt = new BloomFilter(Math.max(expectedInsertions, jtis.size() * 2L), falsePositiveRate);
+            for (String jti : jtis) {
+                rebuilt.add(jti);
+            }
+            
+            // Tokens revoked on this instance while rebuilding are in the table, so the next sync adds them
+            lastSyncStartedAt = startedAt;
+            filter = rebuilt;
+            log.info("Rebuilt token revocation filter with {} entries ({} expired purged)", jtis.size(), purged);
+        }
+    }
+    
+    public long getConfirmedLookups() {
+        return confirmedLookups.sum();
+    }
+    
+    public long getFalsePositives() {
+        return falsePositives.sum();
+    }
+}
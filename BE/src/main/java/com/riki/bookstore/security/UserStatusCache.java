@@ -0,0 +1,58 @@
+package com.riki.bookstore.security;
+
+import com.riki.bookstore.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Short-lived cache of whether a user account is enabled, consulted for every token-authenticated
+ * request. Entries expire after {@code ttl-ms}; toggling an account invalidates its entry immediately.
+ */
+@Component
+public class UserStatusCache {
+    
+    private final UserRepository userRepository;
+    private final long ttlMillis;
+    private final int maxEntries;
+    
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    
+    public UserStatusCache(
+            UserRepository userRepository,
+            @Value("${security.user-status.ttl-ms:30000}") long ttlMillis,
+            @Value("${security.user-status.max-entries:10000}") int maxEntries
+    ) {
+        this.userRepository = userRepository;
+        this.ttlMillis = ttlMillis;
+        this.maxEntries = maxEntries;
+    }
+    
+    /**
+     * Whether the user exists and is enabled; unknown users count as disabled.
+     */
+    public boolean isEnabled(Long userId) {
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(userId);
+        if (entry != null && entry.expiresAt > now) {
+            return entry.enabled;
+        }
+        
+        boolean enabled = userRepository.findEnabledById(userId).orElse(false);
+        if (entries.size() >= maxEntries) {
+            // Everything in here is at most ttl old anyway; dropping it all keeps the bound trivially
+            entries.clear();
+        }
+        entries.put(userId, new Entry(enabled, now + ttlMillis));
+        return enabled;
+    }
+    
+    public void invalidate(Long userId) {
+        entries.remove(userId);
+    }
+    
+    private record Entry(boolean enabled, long expiresAt) {
+    }
+}
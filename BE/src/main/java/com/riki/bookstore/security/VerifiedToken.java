@@ -0,0 +1,19 @@
+package com.riki.bookstore.security;
+
+import java.util.Date;
+
+/**
+ * The parts of a verified access token that requests need, copied out of the parsed claims so the
+ * verification cache can share it between threads. {@code user} is null for tokens issued before the
+ * user ID and role claims existed.
+ */
+public record VerifiedToken(String id, String subject, long expiresAtMillis, AuthenticatedUser user) {
+    
+    public Date expiration() {
+        return new Date(expiresAtMillis);
+    }
+    
+    public boolean isExpired(long nowMillis) {
+        return expiresAtMillis <= nowMillis;
+    }
+}
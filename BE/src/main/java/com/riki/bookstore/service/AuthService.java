@@ -2,16 +2,27 @@ package com.riki.bookstore.service;
 
 import com.riki.bookstore.dto.LoginRequest;
 import com.riki.bookstore.dto.LoginResponse;
+import com.riki.bookstore.dto.RefreshTokenRequest;
 import com.riki.bookstore.dto.RegisterRequest;
 import com.riki.bookstore.entity.User;
 import com.riki.bookstore.repository.UserRepository;
 import com.riki.bookstore.security.JwtService;
+import com.riki.bookstore.security.LoginRateLimiter;
+import com.riki.bookstore.security.RefreshTokenService;
+import com.riki.bookstore.security.TokenRevocationService;
+import com.riki.bookstore.security.VerifiedToken;
+import io.jsonwebtoken.JwtException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
 @Service
 @RequiredArgsConstructor
 public class AuthService {
@@ -20,6 +31,10 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final DailyStatsService dailyStatsService;
+    private final LoginRateLimiter loginRateLimiter;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationService tokenRevocationService;
     
     public LoginResponse register(RegisterRequest request, User.Role role) {
         if (userRepository.existsByUsername(request.getUsername())) {
@@ -41,26 +56,75 @@ public class AuthService {
         user.setEnabled(true);
         
         userRepository.save(user);
+        dailyStatsService.recordNewUser(user.getCreatedAt());
         
-        String token = jwtService.generateToken(user);
+        return issueTokens(user, refreshTokenService.issue(user.getId()));
+    }
+    
+    public LoginResponse login(LoginRequest request, String clientIp) {
+        // Rejected before any password hashing is done
+        loginRateLimiter.checkLoginAttempt(clientIp, request.getUsername());
         
-        return LoginResponse.fromUser(user, token);
+        Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(
+                new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword())
+            );
+        } catch (BadCredentialsException e) {
+            loginRateLimiter.recordFailedLogin(request.getUsername());
+            throw e;
+        }
+        
+        // The provider already loaded the user (and upgraded its hash if needed)
+        User user = authentication.getPrincipal() instanceof User principal
+                ? principal
+                : userRepository.findByUsername(request.getUsername())
+                        .orElseThrow(() -> new RuntimeException("User not found"));
+        
+        if (!user.isEnabled()) {
+            throw new RuntimeException("Account is disabled");
+        }
+        
+        return issueTokens(user, refreshTokenService.issue(user.getId()));
     }
     
-    public LoginResponse login(LoginRequest request) {
-        authenticationManager.authenticate(
-            new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword())
-        );
+    /**
+     * Exchanges a refresh token for a new access token and the next refresh token of its family.
+     */
+    public LoginResponse refresh(RefreshTokenRequest request) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(request.getRefreshToken());
         
-        User user = userRepository.findByUsername(request.getUsername())
+        User user = userRepository.findById(rotation.userId())
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
         if (!user.isEnabled()) {
+            refreshTokenService.revokeAll(user.getId());
             throw new RuntimeException("Account is disabled");
         }
         
+        return issueTokens(user, rotation.refreshToken());
+    }
+    
+    /**
+     * Revokes the refresh token's family and, when still valid, the access token it was used with.
+     */
+    public void logout(RefreshTokenRequest request, String accessToken) {
+        refreshTokenService.revoke(request.getRefreshToken());
+        
+        if (accessToken != null) {
+            try {
+                VerifiedToken token = jwtService.verify(accessToken);
+                tokenRevocationService.revoke(token.id(),
+                        LocalDateTime.ofInstant(token.expiration().toInstant(), ZoneId.systemDefault()));
+            } catch (JwtException e) {
+                // Already expired or invalid, nothing left to revoke
+            }
+        }
+    }
+    
+    private LoginResponse issueTokens(User user, String refreshToken) {
         String token = jwtService.generateToken(user);
         
-        return LoginResponse.fromUser(user, token);
+        return LoginResponse.fromUser(user, token, refreshToken, jwtService.getJwtExpiration());
     }
 }
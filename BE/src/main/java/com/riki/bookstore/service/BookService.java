@@ -3,29 +3,43 @@ package com.riki.bookstore.service;
 import com.riki.bookstore.dto.BookRequest;
 import com.riki.bookstore.entity.Book;
 import com.riki.bookstore.entity.Category;
+import com.riki.bookstore.event.InventoryChangedEvent;
+import com.riki.bookstore.repository.ArchivedOrderItemRepository;
 import com.riki.bookstore.repository.BookRepository;
 import com.riki.bookstore.repository.CategoryRepository;
 import lombok.RequiredArgsConstructor;
 import org.apache.commons.io.IOUtils;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.Base64;
 import java.util.List;
 import com.riki.bookstore.dto.BookListResponse;
+import com.riki.bookstore.dto.LowStockBookResponse;
 
 @Service
 @RequiredArgsConstructor
 public class BookService {
     
+    private static final int MAX_LOW_STOCK_LIMIT = 100;
+    
     private final BookRepository bookRepository;
     private final CategoryRepository categoryRepository;
+    private final ArchivedOrderItemRepository archivedOrderItemRepository;
+    private final FlashSaleService flashSaleService;
+    private final DailyStatsService dailyStatsService;
+    private final InventoryStatsService inventoryStatsService;
+    private final LowStockWatcher lowStockWatcher;
+    private final ApplicationEventPublisher eventPublisher;
     
     public Page<Book> getAllBooks(Pageable pageable) {
         return bookRepository.findAll(pageable);
@@ -34,20 +48,15 @@ public class BookService {
     public BookListResponse getAllBooksWithStats(Pageable pageable) {
         Page<Book> page = bookRepository.findAll(pageable);
         
-        // Calculate low stock books (stock < 5)
-        int lowStockBooks = bookRepository.countByStockQuantityLessThan(5);
-        
-        // Calculate total inventory value
-        BigDecimal totalInventoryValue = bookRepository.calculateTotalInventoryValue();
-        
         return new BookListResponse(
                 page.getContent(),
                 page.getNumber(),
                 page.getSize(),
                 page.getTotalElements(),
                 page.getTotalPages(),
-                lowStockBooks,
-                totalInventoryValue
+                // Running totals, kept current by every stock/price change
+                inventoryStatsService.getLowStockBooks(),
+                inventoryStatsService.getTotalInventoryValue()
         );
     }
     
@@ -74,11 +83,18 @@ public class BookService {
             book.setCoverImage(base64Image);
         }
         
-        return bookRepository.save(book);
+        Book savedBook = bookRepository.save(book);
+        dailyStatsService.recordNewBook(savedBook.getCreatedAt());
+        eventPublisher.publishEvent(new InventoryChangedEvent(
+                savedBook.getId(), null, null, savedBook.getStockQuantity(), savedBook.getPrice()));
+        
+        return savedBook;
     }
     
     public Book updateBook(Long id, BookRequest bookRequest) {
         Book existingBook = getBookById(id);
+        Integer previousStock = existingBook.getStockQuantity();
+        BigDecimal previousPrice = existingBook.getPrice();
         Category category = categoryRepository.findById(bookRequest.getCategoryId())
                 .orElseThrow(() -> new RuntimeException("Category not found"));
         
@@ -95,27 +111,59 @@ public class BookService {
             existingBook.setCoverImage(base64Image);
         }
         
-        return bookRepository.save(existingBook);
+        Book savedBook = bookRepository.save(existingBook);
+        flashSaleService.syncStock(id, savedBook.getStockQuantity());
+        eventPublisher.publishEvent(new InventoryChangedEvent(
+                id, previousStock, previousPrice, savedBook.getStockQuantity(), savedBook.getPrice()));
+        
+        return savedBook;
+    }
+    
+    @Transactional
+    public Book restock(Long id, int quantity) {
+        if (quantity <= 0) {
+            throw new RuntimeException("Restock quantity must be positive");
+        }
+        
+        if (bookRepository.addStock(id, quantity, LocalDateTime.now()) == 0) {
+            throw new RuntimeException("Book not found");
+        }
+        // The row stays locked until commit, so this is exactly our increment on top of the previous stock
+        Integer stock = bookRepository.findStockById(id);
+        Book book = getBookById(id);
+        
+        flashSaleService.syncStock(id, stock);
+        eventPublisher.publishEvent(new InventoryChangedEvent(
+                id, stock - quantity, book.getPrice(), stock, book.getPrice()));
+        
+        return book;
     }
     
     public void deleteBook(Long id) {
-        bookRepository.findById(id)
+        Book book = bookRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Book not found"));
         
         // Check if book exists in any orders
-        if (bookRepository.existsInOrders(id)) {
+        if (bookRepository.existsInOrders(id) || archivedOrderItemRepository.existsByBookId(id)) {
             throw new RuntimeException("Cannot delete book that exists in orders");
         }
         
         bookRepository.deleteById(id);
+        flashSaleService.remove(id);
+        dailyStatsService.recordBookDeleted(book.getCreatedAt());
+        eventPublisher.publishEvent(new InventoryChangedEvent(
+                id, book.getStockQuantity(), book.getPrice(), null, null));
     }
     
-    public List<Book> getLowStockBooks(Integer threshold) {
-        return bookRepository.findByStockQuantityLessThanEqual(threshold);
-    }
-    
-    public Page<Book> getLowStockBooksPaginated(Integer threshold, Pageable pageable) {
-        return bookRepository.findByStockQuantityLessThanEqual(threshold, pageable);
+    public List<LowStockBookResponse> getLowStockBooks(int threshold, int limit) {
+        if (limit < 1 || limit > MAX_LOW_STOCK_LIMIT) {
+            throw new RuntimeException("Limit must be between 1 and " + MAX_LOW_STOCK_LIMIT);
+        }
+        // The watcher's threshold is served from memory; other thresholds use the stock index
+        if (threshold == lowStockWatcher.getThreshold()) {
+            return lowStockWatcher.top(limit);
+        }
+        return bookRepository.findLowStock(threshold, PageRequest.of(0, limit));
     }
     
     public Page<Book> searchBooks(String keyword, Pageable pageable) {
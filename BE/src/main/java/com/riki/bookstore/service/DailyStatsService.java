@@ -0,0 +1,202 @@
+package com.riki.bookstore.service;
+
+import com.riki.bookstore.dto.DailyStatsResponse;
+import com.riki.bookstore.entity.DailyStats;
+import com.riki.bookstore.repository.DailyStatsRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Maintains the {@code daily_stats} rollup. Write paths add deltas once their transaction commits;
+ * a scheduled catch-up recomputes recent days from the source tables to repair anything missed.
+ */
+@Slf4j
+@Service
+public class DailyStatsService {
+
+    private static final int BACKFILL_CHUNK_DAYS = 31;
+
+    private final DailyStatsRepository dailyStatsRepository;
+    private final TransactionTemplate newTransaction;
+    private final boolean enabled;
+    private final int catchUpDays;
+
+    public DailyStatsService(
+            DailyStatsRepository dailyStatsRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${stats.rollup.enabled:true}") boolean enabled,
+            @Value("${stats.rollup.catch-up-days:2}") int catchUpDays
+    ) {
+        this.dailyStatsRepository = dailyStatsRepository;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+        this.catchUpDays = catchUpDays;
+    }
+
+    public void recordOrder(LocalDateTime createdAt, BigDecimal totalAmount) {
+        record(createdAt.toLocalDate(), 1, totalAmount, 0, 0);
+    }
+
+    public void recordNewUser(LocalDateTime createdAt) {
+        record(createdAt.toLocalDate(), 0, BigDecimal.ZERO, 1, 0);
+    }
+
+    public void recordNewUsers(LocalDateTime createdAt, int count) {
+        record(createdAt.toLocalDate(), 0, BigDecimal.ZERO, count, 0);
+    }
+
+    public void recordNewBook(LocalDateTime createdAt) {
+        record(createdAt.toLocalDate(), 0, BigDecimal.ZERO, 0, 1);
+    }
+
+    // The dashboard counts books that still exist, so a deletion takes the book out of its creation day
+    public void recordBookDeleted(LocalDateTime createdAt) {
+        record(createdAt.toLocalDate(), 0, BigDecimal.ZERO, 0, -1);
+    }
+
+    public List<DailyStatsResponse> getDailyStats(LocalDate from, LocalDate to) {
+        return dailyStatsRepository.findByStatDateBetweenOrderByStatDate(from, to).stream()
+                .map(DailyStatsResponse::fromDailyStats)
+                .toList();
+    }
+
+    public List<DailyStats> getSince(LocalDate from) {
+        return dailyStatsRepository.findByStatDateGreaterThanEqual(from);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (!enabled || dailyStatsRepository.count() > 0) {
+            return;
+        }
+
+        LocalDateTime earliest = Stream.of(
+                        dailyStatsRepository.findFirstOrderCreatedAt(),
+                        dailyStatsRepository.findFirstArchivedOrderCreatedAt(),
+                        dailyStatsRepository.findFirstUserCreatedAt(),
+                        dailyStatsRepository.findFirstBookCreatedAt())
+                .filter(Objects::nonNull)
+                .min(LocalDateTime::compareTo)
+                .orElse(null);
+        if (earliest != null) {
+            recompute(earliest.toLocalDate(), LocalDate.now());
+        }
+    }
+
+    @Scheduled(cron = "${stats.rollup.cron:0 15 * * * *}")
+    public void catchUp() {
+        if (enabled) {
+            recompute(LocalDate.now().minusDays(catchUpDays - 1L), LocalDate.now());
+        }
+    }
+
+    /**
+     * Rebuilds the rollup for {@code from}..{@code to} (inclusive) from orders, archived orders,
+     * users and books, one month-sized chunk per transaction. Days with no activity are written as zeros.
+     */
+    public int recompute(LocalDate from, LocalDate to) {
+        long startedAt = System.currentTimeMillis();
+        int days = 0;
+
+        for (LocalDate chunkStart = from; !chunkStart.isAfter(to); chunkStart = chunkStart.plusDays(BACKFILL_CHUNK_DAYS)) {
+            LocalDate start = chunkStart;
+            LocalDate end = min(start.plusDays(BACKFILL_CHUNK_DAYS - 1L), to);
+            days += newTransaction.execute(tx -> recomputeChunk(start, end));
+        }
+
+        log.info("Recomputed daily stats for {} days ({} to {}) in {} ms", days, from, to, System.currentTimeMillis() - startedAt);
+        return days;
+    }
+
+    private int recomputeChunk(LocalDate from, LocalDate to) {
+        LocalDateTime fromTime = from.atStartOfDay();
+        LocalDateTime toTime = to.plusDays(1).atStartOfDay();
+
+        Map<LocalDate, Object[]> orders = byDay(dailyStatsRepository.aggregateOrdersByDay(fromTime, toTime));
+        Map<LocalDate, Object[]> users = byDay(dailyStatsRepository.aggregateUsersByDay(fromTime, toTime));
+        Map<LocalDate, Object[]> books = byDay(dailyStatsRepository.aggregateBooksByDay(fromTime, toTime));
+
+        int days = 0;
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            Object[] orderRow = orders.get(day);
+            dailyStatsRepository.replace(
+                    day,
+                    orderRow != null ? ((Number) orderRow[1]).longValue() : 0,
+                    orderRow != null ? (BigDecimal) orderRow[2] : BigDecimal.ZERO,
+                    count(users.get(day)),
+                    count(books.get(day)));
+            days++;
+        }
+        return days;
+    }
+
+    private void record(LocalDate day, long orders, BigDecimal revenue, long users, long books) {
+        if (!enabled) {
+            return;
+        }
+
+        // Apply after commit in a short transaction of its own, so the per-day row lock is never held
+        // for the duration of the business transaction (all writes on a given day hit the same row)
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(day, orders, revenue, users, books);
+                }
+            });
+        } else {
+            apply(day, orders, revenue, users, books);
+        }
+    }
+
+    private void apply(LocalDate day, long orders, BigDecimal revenue, long users, long books) {
+        try {
+            newTransaction.executeWithoutResult(tx -> dailyStatsRepository.increment(day, orders, revenue, users, books));
+        } catch (RuntimeException e) {
+            // Never fail the caller over statistics; the next catch-up run recomputes the day
+            log.warn("Could not update daily stats for {}: {}", day, e.getMessage());
+        }
+    }
+
+    private Map<LocalDate, Object[]> byDay(List<Object[]> rows) {
+        Map<LocalDate, Object[]> result = new HashMap<>();
+        for (Object[] row : rows) {
+            result.put(toLocalDate(row[0]), row);
+        }
+        return result;
+    }
+
+    private LocalDate toLocalDate(Object value) {
+        if (value instanceof LocalDate date) {
+            return date;
+        }
+        return ((java.sql.Date) value).toLocalDate();
+    }
+
+    private long count(Object[] row) {
+        return row != null ? ((Number) row[1]).longValue() : 0;
+    }
+
+    private LocalDate min(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+}
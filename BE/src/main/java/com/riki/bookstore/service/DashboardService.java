@@ -1,20 +1,32 @@
 package com.riki.bookstore.service;
 
-import com.riki.bookstore.dto.BookResponse;
 import com.riki.bookstore.dto.DashboardStatsResponse;
 import com.riki.bookstore.dto.OrderResponse;
-import com.riki.bookstore.entity.Book;
+import com.riki.bookstore.entity.DailyStats;
 import com.riki.bookstore.entity.Order;
 import com.riki.bookstore.repository.BookRepository;
 import com.riki.bookstore.repository.OrderRepository;
 import com.riki.bookstore.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
 
 @Service
 @RequiredArgsConstructor
@@ -23,8 +35,27 @@ public class DashboardService {
     private final BookRepository bookRepository;
     private final OrderRepository orderRepository;
     private final UserRepository userRepository;
+    private final OrderService orderService;
+    private final DailyStatsService dailyStatsService;
+    private final SnapshotCache snapshotCache;
+    private final LowStockWatcher lowStockWatcher;
+    private final ExecutorService dashboardExecutor;
+    private final PlatformTransactionManager transactionManager;
+    
+    @Value("${dashboard.query-timeout-ms:2000}")
+    private long queryTimeoutMillis;
     
     public DashboardStatsResponse getDashboardStats() {
+        SnapshotCache.Snapshot<DashboardStatsResponse> snapshot = snapshotCache.get("dashboard", this::computeDashboardStats,
+                stats -> !stats.isPartial());
+        
+        DashboardStatsResponse response = snapshot.getValue().withSnapshotAge(snapshot.getAgeMillis());
+        // Low stock books (5 books with stock <= 5) are maintained in memory, so they are always current
+        response.setLowStockBooks(lowStockWatcher.top(5));
+        return response;
+    }
+    
+    private DashboardStatsResponse computeDashboardStats() {
         LocalDateTime now = LocalDateTime.now();
         
         // Calculate date ranges
@@ -33,48 +64,97 @@ public class DashboardService {
         LocalDateTime thisWeekStart = now.with(java.time.DayOfWeek.MONDAY).withHour(0).withMinute(0).withSecond(0).withNano(0);
         LocalDateTime lastWeekStart = thisWeekStart.minusWeeks(1);
         
-        // Book statistics
-        long totalBooks = bookRepository.count();
-        long booksThisMonth = bookRepository.countBooksCreatedAfter(thisMonthStart);
-        long booksLastMonth = bookRepository.countBooksCreatedAfter(lastMonthStart);
-        double bookGrowthRate = calculateGrowthRate(booksThisMonth, booksLastMonth);
+        // All sub-queries are independent: start them together, each with its own time budget
+        SectionTracker tracker = new SectionTracker();
         
-        // Order statistics
-        long newOrdersThisWeek = orderRepository.countOrdersCreatedAfter(thisWeekStart);
-        long newOrdersLastWeek = orderRepository.countOrdersCreatedAfter(lastWeekStart);
-        double orderGrowthRate = calculateGrowthRate(newOrdersThisWeek, newOrdersLastWeek);
-        
-        // Customer statistics
-        long totalCustomers = userRepository.countByRole(com.riki.bookstore.entity.User.Role.USER);
-        long customersThisMonth = userRepository.countUsersCreatedAfter(thisMonthStart);
-        long customersLastMonth = userRepository.countUsersCreatedAfter(lastMonthStart);
-        double customerGrowthRate = calculateGrowthRate(customersThisMonth, customersLastMonth);
-        
-        // Revenue statistics
-        BigDecimal monthlyRevenue = orderRepository.calculateRevenueAfter(thisMonthStart);
-        BigDecimal lastMonthRevenue = orderRepository.calculateRevenueAfter(lastMonthStart);
-        double revenueGrowthRate = calculateGrowthRate(monthlyRevenue, lastMonthRevenue);
+        // Totals are small indexed counts; everything date-ranged comes from the daily_stats rollup
+        CompletableFuture<Long> totalBooks = tracker.run("books", bookRepository::count, 0L);
+        CompletableFuture<Long> totalCustomers = tracker.run("customers", () -> userRepository.countByRole(com.riki.bookstore.entity.User.Role.USER), 0L);
+        LocalDate rollupStart = (lastWeekStart.isBefore(lastMonthStart) ? lastWeekStart : lastMonthStart).toLocalDate();
+        CompletableFuture<List<DailyStats>> rollup = tracker.run("rollup", () -> dailyStatsService.getSince(rollupStart), List.of());
         
         // Recent orders (5 most recent)
-        List<Order> recentOrders = orderRepository.findRecentOrders(PageRequest.of(0, 5));
-        List<OrderResponse> recentOrderResponses = recentOrders.stream()
-                .map(OrderResponse::fromOrder)
-                .toList();
+        CompletableFuture<List<OrderResponse>> recentOrders = tracker.run("recentOrders", () -> {
+            List<Order> orders = orderRepository.findRecentOrders(PageRequest.of(0, 5));
+            return orderService.toResponses(orders);
+        }, List.of());
         
-        // Low stock books (5 books with stock <= 5)
-        List<BookResponse> lowStockBooks = bookRepository.findLowStockBooks().stream()
-                .limit(5)
-                .map(BookResponse::fromBook)
-                .toList();
+        List<DailyStats> days = rollup.join();
+        long booksThisMonth = sumSince(days, thisMonthStart, DailyStats::getNewBooks);
+        long booksLastMonth = sumSince(days, lastMonthStart, DailyStats::getNewBooks);
+        long newOrdersThisWeek = sumSince(days, thisWeekStart, DailyStats::getOrderCount);
+        long newOrdersLastWeek = sumSince(days, lastWeekStart, DailyStats::getOrderCount);
+        long customersThisMonth = sumSince(days, thisMonthStart, DailyStats::getNewUsers);
+        long customersLastMonth = sumSince(days, lastMonthStart, DailyStats::getNewUsers);
+        BigDecimal monthlyRevenue = revenueSince(days, thisMonthStart);
+        BigDecimal lastMonthRevenue = revenueSince(days, lastMonthStart);
+        
+        double bookGrowthRate = calculateGrowthRate(booksThisMonth, booksLastMonth);
+        double orderGrowthRate = calculateGrowthRate(newOrdersThisWeek, newOrdersLastWeek);
+        double customerGrowthRate = calculateGrowthRate(customersThisMonth, customersLastMonth);
+        double revenueGrowthRate = calculateGrowthRate(monthlyRevenue, lastMonthRevenue);
         
-        return new DashboardStatsResponse(
-                new DashboardStatsResponse.BookStats(totalBooks, bookGrowthRate, bookGrowthRate > 0),
+        DashboardStatsResponse response = new DashboardStatsResponse(
+                new DashboardStatsResponse.BookStats(totalBooks.join(), bookGrowthRate, bookGrowthRate > 0),
                 new DashboardStatsResponse.OrderStats(newOrdersThisWeek, orderGrowthRate, orderGrowthRate > 0),
-                new DashboardStatsResponse.CustomerStats(totalCustomers, customerGrowthRate, customerGrowthRate > 0),
+                new DashboardStatsResponse.CustomerStats(totalCustomers.join(), customerGrowthRate, customerGrowthRate > 0),
                 new DashboardStatsResponse.RevenueStats(monthlyRevenue, revenueGrowthRate, revenueGrowthRate > 0),
-                recentOrderResponses,
-                lowStockBooks
+                recentOrders.join(),
+                List.of()
         );
+        response.setPartial(!tracker.incompleteSections.isEmpty());
+        response.setIncompleteSections(List.copyOf(tracker.incompleteSections));
+        response.setSectionTimings(new TreeMap<>(tracker.timings));
+        
+        return response;
+    }
+    
+    /**
+     * Runs dashboard sub-queries on the bounded executor and records, per section, how long it ran and
+     * whether it timed out or failed (in which case its fallback is used). Each section runs in a read-only
+     * transaction whose timeout is the query budget: it counts from when the section starts running, not
+     * from when it was queued, and becomes a JDBC query timeout, so the database cancels a query that
+     * overruns and the thread and connection are freed instead of working on for a result nobody waits for.
+     */
+    private class SectionTracker {
+        private final TransactionTemplate sectionTransaction;
+        private final Map<String, Long> timings = new ConcurrentHashMap<>();
+        private final Set<String> incompleteSections = ConcurrentHashMap.newKeySet();
+        
+        SectionTracker() {
+            sectionTransaction = new TransactionTemplate(transactionManager);
+            sectionTransaction.setReadOnly(true);
+            // JDBC query timeouts are whole seconds
+            sectionTransaction.setTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(queryTimeoutMillis + 999)));
+        }
+        
+        <T> CompletableFuture<T> run(String section, Supplier<T> query, T fallback) {
+            return CompletableFuture.supplyAsync(() -> {
+                        long startedAt = System.nanoTime();
+                        try {
+                            return sectionTransaction.execute(status -> query.get());
+                        } finally {
+                            timings.put(section, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+                        }
+                    }, dashboardExecutor)
+                    .exceptionally(error -> {
+                        incompleteSections.add(section);
+                        return fallback;
+                    });
+        }
+    }
+    
+    private long sumSince(List<DailyStats> days, LocalDateTime start, ToLongFunction<DailyStats> field) {
+        LocalDate from = start.toLocalDate();
+        return days.stream().filter(day -> !day.getStatDate().isBefore(from)).mapToLong(field).sum();
+    }
+    
+    private BigDecimal revenueSince(List<DailyStats> days, LocalDateTime start) {
+        LocalDate from = start.toLocalDate();
+        return days.stream()
+                .filter(day -> !day.getStatDate().isBefore(from))
+                .map(DailyStats::getRevenue)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
     }
     
     private double calculateGrowthRate(long current, long previous) {
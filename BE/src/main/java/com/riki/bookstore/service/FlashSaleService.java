@@ -0,0 +1,136 @@
+package com.riki.bookstore.service;
+
+import com.riki.bookstore.dto.FlashSaleResponse;
+import com.riki.bookstore.entity.Book;
+import com.riki.bookstore.repository.BookRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory admission control for books in flash-sale mode.
+ * Each book on sale holds a token bucket sized to its remaining stock; checkout attempts
+ * take tokens up front so that excess buyers are rejected without hitting the database.
+ */
+@Service
+@RequiredArgsConstructor
+public class FlashSaleService {
+
+    private final BookRepository bookRepository;
+
+    private final Map<Long, AtomicInteger> buckets = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadActiveSales() {
+        for (Object[] row : bookRepository.findFlashSaleStock()) {
+            buckets.put((Long) row[0], new AtomicInteger((Integer) row[1]));
+        }
+    }
+
+    public FlashSaleResponse setFlashSale(Long bookId, boolean enabled) {
+        Book book = bookRepository.findById(bookId)
+                .orElseThrow(() -> new RuntimeException("Book not found"));
+
+        book.setFlashSale(enabled);
+        bookRepository.save(book);
+
+        if (enabled) {
+            buckets.put(bookId, new AtomicInteger(book.getStockQuantity()));
+        } else {
+            buckets.remove(bookId);
+        }
+
+        return getStatus(bookId);
+    }
+
+    public FlashSaleResponse getStatus(Long bookId) {
+        AtomicInteger bucket = buckets.get(bookId);
+        if (bucket == null) {
+            return new FlashSaleResponse(bookId, false, null);
+        }
+        return new FlashSaleResponse(bookId, true, Math.max(bucket.get(), 0));
+    }
+
+    /**
+     * Fast pre-check used by the cart: rejects when a sale cannot cover the requested quantity.
+     */
+    public void checkAvailable(Long bookId, int quantity) {
+        AtomicInteger bucket = buckets.get(bookId);
+        if (bucket != null && bucket.get() < quantity) {
+            throw new RuntimeException("Flash sale sold out for this book");
+        }
+    }
+
+    /**
+     * Takes tokens for every book on sale in {@code quantities}, all or nothing.
+     * Inside a transaction the tokens are handed back if it does not commit.
+     */
+    public void admit(Map<Long, Integer> quantities) {
+        List<Acquired> acquired = new ArrayList<>();
+
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            AtomicInteger bucket = buckets.get(entry.getKey());
+            if (bucket == null) {
+                continue;
+            }
+            if (!tryAcquire(bucket, entry.getValue())) {
+                acquired.forEach(this::release);
+                throw new RuntimeException("Flash sale sold out for book ID: " + entry.getKey());
+            }
+            acquired.add(new Acquired(entry.getKey(), bucket, entry.getValue()));
+        }
+
+        if (!acquired.isEmpty() && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        acquired.forEach(FlashSaleService.this::release);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Re-sizes the bucket after an admin edits the stock of a book on sale. The new bucket starts from
+     * the stock in the database, so tokens taken from the old one are not handed back to it.
+     */
+    public void syncStock(Long bookId, int stockQuantity) {
+        buckets.computeIfPresent(bookId, (id, bucket) -> new AtomicInteger(stockQuantity));
+    }
+
+    public void remove(Long bookId) {
+        buckets.remove(bookId);
+    }
+
+    private boolean tryAcquire(AtomicInteger bucket, int quantity) {
+        int current;
+        do {
+            current = bucket.get();
+            if (current < quantity) {
+                return false;
+            }
+        } while (!bucket.compareAndSet(current, current - quantity));
+        return true;
+    }
+
+    // Tokens only go back to the bucket they were taken from; a bucket replaced since then is left alone
+    private void release(Acquired acquired) {
+        if (buckets.get(acquired.bookId()) == acquired.bucket()) {
+            acquired.bucket().addAndGet(acquired.quantity());
+        }
+    }
+
+    private record Acquired(Long bookId, AtomicInteger bucket, int quantity) {
+    }
+}
@@ -0,0 +1,154 @@
+package com.riki.bookstore.service;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * HyperLogLog distinct counter with 2^12 registers (about 1.6% standard error).
+ * Small sketches are kept sparse as packed (index, rank) entries and switch to a dense
+ * register array once that would be smaller. Sketches of the same precision merge losslessly.
+ */
+public class HyperLogLog {
+
+    public static final int PRECISION = 12;
+    public static final int REGISTERS = 1 << PRECISION;
+    public static final double STANDARD_ERROR = 1.04 / Math.sqrt(REGISTERS);
+
+    private static final int SPARSE_LIMIT = REGISTERS / 8;
+    private static final byte FORMAT_SPARSE = 0;
+    private static final byte FORMAT_DENSE = 1;
+
+    private int[] sparse = new int[8]; // (index << 8) | rank, unsorted; null once dense
+    private int sparseSize;
+    private byte[] dense;
+
+    /**
+     * Adds a 64-bit hash of the item; returns whether the sketch changed.
+     */
+    public synchronized boolean add(long hash) {
+        int index = (int) (hash >>> (64 - PRECISION));
+        int rank = Math.min(Long.numberOfLeadingZeros(hash << PRECISION), 64 - PRECISION) + 1;
+        return update(index, rank);
+    }
+
+    public void merge(HyperLogLog other) {
+        int[] entries;
+        byte[] registers;
+        synchronized (other) {
+            entries = other.dense == null ? Arrays.copyOf(other.sparse, other.sparseSize) : null;
+            registers = other.dense != null ? other.dense.clone() : null;
+        }
+
+        synchronized (this) {
+            if (entries != null) {
+                for (int entry : entries) {
+                    update(entry >>> 8, entry & 0xFF);
+                }
+            } else {
+                for (int i = 0; i < REGISTERS; i++) {
+                    if (registers[i] != 0) {
+                        update(i, registers[i]);
+                    }
+                }
+            }
+        }
+    }
+
+    public synchronized long estimate() {
+        byte[] registers = dense != null ? dense : materialize();
+        double sum = 0;
+        int zeros = 0;
+        for (int i = 0; i < REGISTERS; i++) {
+            int rank = registers[i];
+            sum += 1.0 / (1L << rank);
+            if (rank == 0) {
+                zeros++;
+            }
+        }
+
+        double alpha = 0.7213 / (1 + 1.079 / REGISTERS);
+        double estimate = alpha * REGISTERS * REGISTERS / sum;
+        if (estimate <= 2.5 * REGISTERS && zeros > 0) {
+            // Small-range correction: linear counting
+            estimate = REGISTERS * Math.log((double) REGISTERS / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    public synchronized byte[] toBytes() {
+        if (dense != null) {
+            ByteBuffer buffer = ByteBuffer.allocate(1 + REGISTERS);
+            buffer.put(FORMAT_DENSE).put(dense);
+            return buffer.array();
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 2 + sparseSize * 3);
+        buffer.put(FORMAT_SPARSE).putShort((short) sparseSize);
+        for (int i = 0; i < sparseSize; i++) {
+            buffer.putShort((short) (sparse[i] >>> 8)).put((byte) (sparse[i] & 0xFF));
+        }
+        return buffer.array();
+    }
+
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        HyperLogLog sketch = new HyperLogLog();
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (buffer.get() == FORMAT_DENSE) {
+            sketch.sparse = null;
+            sketch.dense = new byte[REGISTERS];
+            buffer.get(sketch.dense);
+            return sketch;
+        }
+
+        int size = Short.toUnsignedInt(buffer.getShort());
+        for (int i = 0; i < size; i++) {
+            int index = Short.toUnsignedInt(buffer.getShort());
+            sketch.update(index, buffer.get());
+        }
+        return sketch;
+    }
+
+    private boolean update(int index, int rank) {
+        if (dense != null) {
+            if (dense[index] >= rank) {
+                return false;
+            }
+            dense[index] = (byte) rank;
+            return true;
+        }
+
+        for (int i = 0; i < sparseSize; i++) {
+            if (sparse[i] >>> 8 == index) {
+                if ((sparse[i] & 0xFF) >= rank) {
+                    return false;
+                }
+                sparse[i] = (index << 8) | rank;
+                return true;
+            }
+        }
+
+        if (sparseSize == SPARSE_LIMIT) {
+            toDense();
+            return update(index, rank);
+        }
+        if (sparseSize == sparse.length) {
+            sparse = Arrays.copyOf(sparse, sparse.length * 2);
+        }
+        sparse[sparseSize++] = (index << 8) | rank;
+        return true;
+    }
+
+    private void toDense() {
+        dense = materialize();
+        sparse = null;
+        sparseSize = 0;
+    }
+
+    private byte[] materialize() {
+        byte[] registers = new byte[REGISTERS];
+        for (int i = 0; i < sparseSize; i++) {
+            registers[sparse[i] >>> 8] = (byte) (sparse[i] & 0xFF);
+        }
+        return registers;
+    }
+}
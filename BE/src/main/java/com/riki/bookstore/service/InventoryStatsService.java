@@ -0,0 +1,90 @@
+package com.riki.bookstore.service;
+
+import com.riki.bookstore.event.InventoryChangedEvent;
+import com.riki.bookstore.repository.BookRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Running totals of the catalogue's inventory value and low-stock count, adjusted by every
+ * committed stock or price change so the admin books page does not scan the books table.
+ * A periodic reconciliation replaces the totals with freshly computed ones to correct any drift.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InventoryStatsService {
+
+    // Same threshold as the admin books page has always used (stock < 5)
+    public static final int LOW_STOCK_THRESHOLD = 5;
+
+    private final BookRepository bookRepository;
+
+    private final AtomicLong inventoryValueCents = new AtomicLong();
+    private final AtomicLong lowStockBooks = new AtomicLong();
+    private final AtomicLong version = new AtomicLong(); // bumped on every applied change
+
+    public BigDecimal getTotalInventoryValue() {
+        return BigDecimal.valueOf(inventoryValueCents.get(), 2);
+    }
+
+    public int getLowStockBooks() {
+        return (int) lowStockBooks.get();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInventoryChanged(InventoryChangedEvent event) {
+        long before = valueCents(event.getPreviousPrice(), event.getPreviousStock());
+        long after = valueCents(event.getPrice(), event.getStock());
+        // Short critical section shared with reconcile(); readers never lock
+        synchronized (this) {
+            inventoryValueCents.addAndGet(after - before);
+            lowStockBooks.addAndGet(isLow(event.getStock()) - isLow(event.getPreviousStock()));
+            version.incrementAndGet();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        reconcile();
+    }
+
+    @Scheduled(cron = "${inventory.stats.reconcile-cron:0 */10 * * * *}")
+    public void reconcile() {
+        long versionBefore = version.get();
+        long valueCents = bookRepository.calculateTotalInventoryValue().movePointRight(2).longValue();
+        long lowStock = bookRepository.countByStockQuantityLessThan(LOW_STOCK_THRESHOLD);
+
+        // Only overwrite when no change was applied while querying; otherwise try again next run
+        synchronized (this) {
+            if (version.get() != versionBefore) {
+                log.debug("Inventory changed during reconciliation, skipping this run");
+                return;
+            }
+            long valueDrift = valueCents - inventoryValueCents.getAndSet(valueCents);
+            long lowStockDrift = lowStock - lowStockBooks.getAndSet(lowStock);
+            if (versionBefore > 0 && (valueDrift != 0 || lowStockDrift != 0)) {
+                log.warn("Corrected inventory stats drift: value {} cents, low stock {} books", valueDrift, lowStockDrift);
+            }
+        }
+    }
+
+    private long valueCents(BigDecimal price, Integer stock) {
+        if (price == null || stock == null) {
+            return 0;
+        }
+        return price.movePointRight(2).longValue() * stock;
+    }
+
+    private int isLow(Integer stock) {
+        return stock != null && stock < LOW_STOCK_THRESHOLD ? 1 : 0;
+    }
+}
@@ -0,0 +1,171 @@
+package com.riki.bookstore.service;
+
+import com.riki.bookstore.dto.LowStockBookResponse;
+import com.riki.bookstore.event.InventoryChangedEvent;
+import com.riki.bookstore.event.LowStockEvent;
+import com.riki.bookstore.repository.BookRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Keeps the books at or below the low-stock threshold in memory, ordered by stock, and maintains the
+ * list from committed inventory changes instead of re-querying it. Books crossing the threshold in
+ * either direction are announced as {@link LowStockEvent}s.
+ * <p>
+ * At most {@code max-tracked} books are held. Untracked low-stock books never have less stock than
+ * the tracked ones, so the head of the list stays exact; only when it shrinks below a requested size
+ * while books were left out is it reloaded from the stock index.
+ */
+@Slf4j
+@Service
+public class LowStockWatcher {
+    
+    private static final Comparator<LowStockBookResponse> BY_STOCK =
+            Comparator.comparing(LowStockBookResponse::getStockQuantity).thenComparing(LowStockBookResponse::getId);
+    
+    private final BookRepository bookRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int threshold;
+    private final int maxTracked;
+    
+    // Guarded by this; entries are replaced, never mutated, while in the set
+    private final TreeSet<LowStockBookResponse> ordered = new TreeSet<>(BY_STOCK);
+    private final Map<Long, LowStockBookResponse> byId = new HashMap<>();
+    private boolean truncated;
+    
+    public LowStockWatcher(
+            BookRepository bookRepository,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${inventory.low-stock.threshold:5}") int threshold,
+            @Value("${inventory.low-stock.max-tracked:500}") int maxTracked
+    ) {
+        this.bookRepository = bookRepository;
+        this.eventPublisher = eventPublisher;
+        this.threshold = threshold;
+        this.maxTracked = maxTracked;
+    }
+    
+    public int getThreshold() {
+        return threshold;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<LowStockBookResponse> books = bookRepository.findLowStock(threshold, PageRequest.of(0, maxTracked + 1));
+        synchronized (this) {
+            ordered.clear();
+            byId.clear();
+            truncated = books.size() > maxTracked;
+            books.stream().limit(maxTracked).forEach(this::put);
+        }
+        log.info("Tracking {} low-stock books{}", books.size(), truncated ? " (truncated)" : "");
+    }
+    
+    /**
+     * The {@code limit} books with the least stock, lowest first.
+     */
+    public List<LowStockBookResponse> top(int limit) {
+        synchronized (this) {
+            if (!truncated || ordered.size() >= limit) {
+                return copyHead(limit);
+            }
+        }
+        load();
+        synchronized (this) {
+            return copyHead(limit);
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInventoryChanged(InventoryChangedEvent event) {
+        boolean wasLow = isLow(event.getPreviousStock());
+        boolean low = isLow(event.getStock());
+        if (!wasLow && !low) {
+            return;
+        }
+        
+        LowStockBookResponse current;
+        synchronized (this) {
+            current = byId.get(event.getBookId());
+        }
+        
+        if (!low) {
+            if (current != null) {
+                synchronized (this) {
+                    remove(event.getBookId());
+                }
+            }
+            if (wasLow) {
+                announce(event.getBookId(), current != null ? current.getTitle() : null, event.getStock(), LowStockEvent.Type.LEFT);
+            }
+            return;
+        }
+        
+        // Title and category only need to be read once, when the book first enters the list
+        LowStockBookResponse entry = current != null
+                ? new LowStockBookResponse(current.getId(), current.getTitle(), current.getAuthor(), event.getStock(), current.getCategoryName())
+                : bookRepository.findLowStockEntry(event.getBookId()).orElse(null);
+        if (entry == null) {
+            return;
+        }
+        entry.setStockQuantity(event.getStock());
+        
+        synchronized (this) {
+            remove(entry.getId());
+            put(entry);
+            if (ordered.size() > maxTracked) {
+                remove(ordered.last().getId());
+                truncated = true;
+            }
+        }
+        if (!wasLow) {
+            announce(entry.getId(), entry.getTitle(), entry.getStockQuantity(), LowStockEvent.Type.ENTERED);
+        }
+    }
+    
+    private void announce(Long bookId, String title, Integer stock, LowStockEvent.Type type) {
+        log.info("Book {} {} low stock (stock {})", bookId, type == LowStockEvent.Type.ENTERED ? "entered" : "left", stock);
+        eventPublisher.publishEvent(new LowStockEvent(bookId, title, stock, type));
+    }
+    
+    private List<LowStockBookResponse> copyHead(int limit) {
+        List<LowStockBookResponse> result = new ArrayList<>(Math.min(limit, ordered.size()));
+        Iterator<LowStockBookResponse> it = ordered.iterator();
+        while (it.hasNext() && result.size() < limit) {
+            LowStockBookResponse book = it.next();
+            result.add(new LowStockBookResponse(book.getId(), book.getTitle(), book.getAuthor(),
+                    book.getStockQuantity(), book.getCategoryName()));
+        }
+        return result;
+    }
+    
+    private void put(LowStockBookResponse book) {
+        ordered.add(book);
+        byId.put(book.getId(), book);
+    }
+    
+    private void remove(Long bookId) {
+        LowStockBookResponse existing = byId.remove(bookId);
+        if (existing != null) {
+            ordered.remove(existing);
+        }
+    }
+    
+    private boolean isLow(Integer stock) {
+        return stock != null && stock <= threshold;
+    }
+}
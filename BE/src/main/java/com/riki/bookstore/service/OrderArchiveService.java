@@ -0,0 +1,75 @@
+package com.riki.bookstore.service;
+
+import com.riki.bookstore.entity.Order;
+import com.riki.bookstore.repository.ArchivedOrderRepository;
+import com.riki.bookstore.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves finished orders older than the retention window from {@code orders}/{@code order_items}
+ * into the archive tables, in small batches so the hot tables stay small without long locks.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrderArchiveService {
+
+    private static final List<Order.OrderStatus> ARCHIVABLE_STATUSES =
+            List.of(Order.OrderStatus.COMPLETED, Order.OrderStatus.CANCELLED);
+
+    private final OrderRepository orderRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${order.archive.enabled:true}")
+    private boolean enabled;
+
+    // Keep at least two months hot: dashboard month-over-month stats read the hot table
+    @Value("${order.archive.retention-days:180}")
+    private int retentionDays;
+
+    @Value("${order.archive.batch-size:500}")
+    private int batchSize;
+
+    @Scheduled(cron = "${order.archive.cron:0 30 3 * * *}")
+    public void archiveFinishedOrders() {
+        if (!enabled) {
+            return;
+        }
+
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        long startedAt = System.currentTimeMillis();
+        int total = 0;
+        int moved;
+
+        do {
+            moved = transactionTemplate.execute(tx -> archiveBatch(cutoff));
+            total += moved;
+        } while (moved == batchSize);
+
+        log.info("Archived {} orders created before {} in {} ms", total, cutoff, System.currentTimeMillis() - startedAt);
+    }
+
+    private int archiveBatch(LocalDateTime cutoff) {
+        List<Long> ids = orderRepository.findIdsForArchive(ARCHIVABLE_STATUSES, cutoff, PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        archivedOrderRepository.copyOrders(ids, LocalDateTime.now());
+        archivedOrderRepository.copyOrderItems(ids);
+        archivedOrderRepository.deleteHotOrderItems(ids);
+        archivedOrderRepository.deleteHotOrders(ids);
+
+        return ids.size();
+    }
+}
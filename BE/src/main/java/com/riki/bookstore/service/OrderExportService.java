@@ -0,0 +1,128 @@
+package com.riki.bookstore.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.riki.bookstore.dto.OrderExportRow;
+import com.riki.bookstore.entity.Order;
+import com.riki.bookstore.repository.ArchivedOrderRepository;
+import com.riki.bookstore.repository.OrderRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+/**
+ * Writes orders straight from a forward-only database cursor to the response stream,
+ * so memory use does not depend on how many orders are exported.
+ */
+@Service
+public class OrderExportService {
+
+    public enum Format { CSV, NDJSON }
+
+    private static final String CSV_HEADER = "id,orderNumber,userId,recipientName,recipientPhone,recipientAddress," +
+            "totalAmount,status,notes,createdAt,updatedAt";
+
+    private final OrderRepository orderRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public OrderExportService(OrderRepository orderRepository,
+                              ArchivedOrderRepository archivedOrderRepository,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager) {
+        this.orderRepository = orderRepository;
+        this.archivedOrderRepository = archivedOrderRepository;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public void export(Format format, LocalDateTime from, LocalDateTime to, Order.OrderStatus status,
+                       boolean includeArchived, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), 64 * 1024);
+
+        if (format == Format.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        try {
+            // Cursors must be read one after the other: a streaming MySQL result blocks its connection
+            readOnlyTransaction.executeWithoutResult(tx -> {
+                try (Stream<OrderExportRow> rows = orderRepository.streamForExport(from, to, status)) {
+                    rows.forEach(row -> writeRow(format, row, writer));
+                }
+            });
+            if (includeArchived) {
+                readOnlyTransaction.executeWithoutResult(tx -> {
+                    try (Stream<OrderExportRow> rows = archivedOrderRepository.streamForExport(from, to, status)) {
+                        rows.forEach(row -> writeRow(format, row, writer));
+                    }
+                });
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        writer.flush();
+    }
+
+    private void writeRow(Format format, OrderExportRow row, Writer writer) {
+        try {
+            if (format == Format.NDJSON) {
+                writer.write(objectMapper.writeValueAsString(row));
+            } else {
+                writer.write(String.valueOf(row.getId()));
+                writer.write(',');
+                writeCsvField(writer, row.getOrderNumber());
+                writer.write(',');
+                writer.write(String.valueOf(row.getUserId()));
+                writer.write(',');
+                writeCsvField(writer, row.getRecipientName());
+                writer.write(',');
+                writeCsvField(writer, row.getRecipientPhone());
+                writer.write(',');
+                writeCsvField(writer, row.getRecipientAddress());
+                writer.write(',');
+                writer.write(row.getTotalAmount().toPlainString());
+                writer.write(',');
+                writer.write(row.getStatus().name());
+                writer.write(',');
+                writeCsvField(writer, row.getNotes());
+                writer.write(',');
+                writer.write(row.getCreatedAt().toString());
+                writer.write(',');
+                writer.write(row.getUpdatedAt().toString());
+            }
+            writer.write('\n');
+        } catch (IOException e) {
+            // Client went away: abort the cursor instead of reading the rest of the table
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
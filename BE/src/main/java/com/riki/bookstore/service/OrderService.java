@@ -0,0 +1,311 @@
+package com.riki.bookstore.service;
+
+import com.riki.bookstore.dto.OrderBulkStatusResponse;
+import com.riki.bookstore.dto.OrderBulkStatusResponse.OrderStatusOutcome;
+import com.riki.bookstore.dto.OrderBulkStatusResponse.Outcome;
+import com.riki.bookstore.dto.OrderHistoryResponse;
+import com.riki.bookstore.dto.OrderItemResponse;
+import com.riki.bookstore.dto.OrderItemSummary;
+import com.riki.bookstore.dto.OrderResponse;
+import com.riki.bookstore.dto.PageResponse;
+import com.riki.bookstore.entity.ArchivedOrder;
+import com.riki.bookstore.entity.Order;
+import com.riki.bookstore.event.OrderStatusChangedEvent;
+import com.riki.bookstore.repository.ArchivedOrderItemRepository;
+import com.riki.bookstore.repository.ArchivedOrderRepository;
+import com.riki.bookstore.repository.OrderItemRepository;
+import com.riki.bookstore.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class OrderService {
+
+    public static final int MAX_HISTORY_PAGE_SIZE = 1000;
+
+    private static final Comparator<OrderResponse> NEWEST_FIRST = Comparator
+            .comparing(OrderResponse::getCreatedAt, Comparator.reverseOrder())
+            .thenComparing(OrderResponse::getId, Comparator.reverseOrder());
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final ArchivedOrderItemRepository archivedOrderItemRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${order.bulk-status.chunk-size:500}")
+    private int bulkStatusChunkSize;
+
+    /**
+     * Maps a list of orders with a single query for all of their items (book summary only).
+     */
+    public List<OrderResponse> toResponses(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> orderIds = orders.stream().map(Order::getId).toList();
+        Map<Long, List<OrderItemResponse>> itemsByOrder = groupByOrder(orderItemRepository.findSummariesByOrderIds(orderIds));
+
+        return orders.stream()
+                .map(order -> OrderResponse.fromOrder(order, itemsByOrder.getOrDefault(order.getId(), List.of())))
+                .toList();
+    }
+
+    public PageResponse<OrderResponse> toPageResponse(Page<Order> page) {
+        return new PageResponse<>(
+                toResponses(page.getContent()),
+                page.getNumber(),
+                page.getSize(),
+                page.getTotalElements(),
+                page.getTotalPages()
+        );
+    }
+
+    /**
+     * Maps a single order for the detail view, including book cover images.
+     */
+    public OrderResponse toDetailResponse(Order order) {
+        return OrderResponse.fromOrder(order, orderItemRepository.findDetailsByOrderId(order.getId()));
+    }
+
+    /**
+     * Customer order history, newest first, across the hot table and the archive. Orders are archived
+     * by status as well as age (open orders stay in the hot table however old they are), so the two
+     * overlap in time: each page reads the next {@code pageSize} rows of both after the cursor and
+     * merges them on (createdAt, id). The hot table is read first, so an order archived in between
+     * shows up in both reads rather than in neither, and the duplicate is dropped.
+     */
+    public OrderHistoryResponse getOrderHistory(Long userId, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_HISTORY_PAGE_SIZE));
+
+        LocalDateTime afterCreatedAt = null;
+        Long afterId = 0L;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = decodeCursor(cursor);
+            afterId = Long.valueOf(parts[0]);
+            afterCreatedAt = LocalDateTime.parse(parts[1]);
+        }
+
+        // One extra row from each side tells whether there is a next page
+        PageRequest page = PageRequest.of(0, pageSize + 1);
+        List<OrderResponse> hot = toResponses(orderRepository.findHistoryPage(userId, afterCreatedAt, afterId, page));
+        List<OrderResponse> archived = toArchivedResponses(
+                archivedOrderRepository.findHistoryPage(userId, afterCreatedAt, afterId, page));
+
+        Map<Long, OrderResponse> merged = new LinkedHashMap<>();
+        int h = 0;
+        int a = 0;
+        while (merged.size() <= pageSize && (h < hot.size() || a < archived.size())) {
+            OrderResponse next;
+            if (a >= archived.size() || (h < hot.size() && NEWEST_FIRST.compare(hot.get(h), archived.get(a)) <= 0)) {
+                next = hot.get(h++);
+            } else {
+                next = archived.get(a++);
+            }
+            merged.putIfAbsent(next.getId(), next);
+        }
+
+        List<OrderResponse> items = new ArrayList<>(merged.values());
+        String nextCursor = null;
+        if (items.size() > pageSize) {
+            items = items.subList(0, pageSize);
+            OrderResponse last = items.get(pageSize - 1);
+            nextCursor = encodeCursor(last.getId(), last.getCreatedAt());
+        }
+
+        return new OrderHistoryResponse(items, nextCursor);
+    }
+
+    /**
+     * Order detail from the hot table or, failing that, the archive.
+     * When {@code userId} is given the order must belong to that user.
+     */
+    public OrderResponse getOrderDetail(Long orderId, Long userId) {
+        Optional<Order> order = orderRepository.findById(orderId);
+        if (order.isPresent()) {
+            checkOwner(order.get().getUser().getId(), userId);
+            return toDetailResponse(order.get());
+        }
+
+        ArchivedOrder archived = archivedOrderRepository.findById(orderId)
+                .orElseThrow(() -> new RuntimeException("Order not found"));
+        checkOwner(archived.getUserId(), userId);
+        return toArchivedDetailResponse(archived);
+    }
+
+    public OrderResponse getOrderDetailByNumber(String orderNumber, Long userId) {
+        Optional<Order> order = orderRepository.findByOrderNumber(orderNumber);
+        if (order.isPresent()) {
+            checkOwner(order.get().getUser().getId(), userId);
+            return toDetailResponse(order.get());
+        }
+
+        ArchivedOrder archived = archivedOrderRepository.findByOrderNumber(orderNumber)
+                .orElseThrow(() -> new RuntimeException("Order not found"));
+        checkOwner(archived.getUserId(), userId);
+        return toArchivedDetailResponse(archived);
+    }
+
+    public BigDecimal calculateTotalRevenue() {
+        return orderRepository.calculateTotalRevenue().add(archivedOrderRepository.calculateTotalRevenue());
+    }
+
+    public Order updateStatus(Long orderId, Order.OrderStatus status) {
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new RuntimeException("Order not found"));
+
+        if (order.getStatus() == status) {
+            return order;
+        }
+        if (!order.getStatus().canTransitionTo(status)) {
+            throw new RuntimeException("Cannot change order status from " + order.getStatus() + " to " + status);
+        }
+
+        Order.OrderStatus previous = order.getStatus();
+        order.setStatus(status);
+        Order updatedOrder = orderRepository.save(order);
+        
+        eventPublisher.publishEvent(new OrderStatusChangedEvent(
+                updatedOrder.getId(), updatedOrder.getOrderNumber(), updatedOrder.getUser().getId(),
+                previous, status, updatedOrder.getUpdatedAt()));
+        
+        return updatedOrder;
+    }
+
+    /**
+     * Validates and applies a status transition to many orders with set-based UPDATEs,
+     * one transaction per chunk, without loading the order entities.
+     */
+    public OrderBulkStatusResponse bulkUpdateStatus(List<Long> orderIds, Order.OrderStatus status) {
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(orderIds));
+        Map<Long, OrderStatusOutcome> outcomes = new HashMap<>();
+
+        for (int from = 0; from < ids.size(); from += bulkStatusChunkSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + bulkStatusChunkSize, ids.size()));
+            transactionTemplate.executeWithoutResult(tx -> applyChunk(chunk, status, outcomes));
+        }
+
+        List<OrderStatusOutcome> results = ids.stream().map(outcomes::get).toList();
+        int updated = (int) results.stream().filter(r -> r.getOutcome() == Outcome.UPDATED).count();
+
+        return new OrderBulkStatusResponse(status.name(), ids.size(), updated, results);
+    }
+
+    private void applyChunk(List<Long> chunk, Order.OrderStatus status, Map<Long, OrderStatusOutcome> outcomes) {
+        Map<Long, Order.OrderStatus> current = new HashMap<>();
+        Map<Long, Object[]> rows = new HashMap<>();
+        for (Object[] row : orderRepository.findStatusesByIdIn(chunk)) {
+            current.put((Long) row[0], (Order.OrderStatus) row[1]);
+            rows.put((Long) row[0], row);
+        }
+
+        // Group the valid transitions by source status so each group is one guarded UPDATE
+        Map<Order.OrderStatus, List<Long>> bySource = new EnumMap<>(Order.OrderStatus.class);
+        for (Long id : chunk) {
+            Order.OrderStatus previous = current.get(id);
+            if (previous == null) {
+                outcomes.put(id, new OrderStatusOutcome(id, Outcome.NOT_FOUND, null));
+            } else if (previous == status) {
+                outcomes.put(id, new OrderStatusOutcome(id, Outcome.UNCHANGED, previous.name()));
+            } else if (!previous.canTransitionTo(status)) {
+                outcomes.put(id, new OrderStatusOutcome(id, Outcome.INVALID_TRANSITION, previous.name()));
+            } else {
+                bySource.computeIfAbsent(previous, s -> new ArrayList<>()).add(id);
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        bySource.forEach((previous, group) -> {
+            int affected = orderRepository.updateStatus(group, previous, status, now);
+            Map<Long, Order.OrderStatus> after = new HashMap<>();
+            if (affected != group.size()) {
+                // Some rows changed under us: re-read just this group to tell which ones were applied
+                for (Object[] row : orderRepository.findStatusesByIdIn(group)) {
+                    after.put((Long) row[0], (Order.OrderStatus) row[1]);
+                }
+            }
+
+            for (Long id : group) {
+                boolean applied = affected == group.size() || after.get(id) == status;
+                outcomes.put(id, new OrderStatusOutcome(id, applied ? Outcome.UPDATED : Outcome.CONFLICT, previous.name()));
+                if (applied) {
+                    Object[] row = rows.get(id);
+                    eventPublisher.publishEvent(new OrderStatusChangedEvent(
+                            id, (String) row[3], (Long) row[2], previous, status, now));
+                }
+            }
+        });
+    }
+
+    private List<OrderResponse> toArchivedResponses(List<ArchivedOrder> orders) {
+        if (orders.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> orderIds = orders.stream().map(ArchivedOrder::getId).toList();
+        Map<Long, List<OrderItemResponse>> itemsByOrder = groupByOrder(archivedOrderItemRepository.findSummariesByOrderIds(orderIds));
+
+        return orders.stream()
+                .map(order -> OrderResponse.fromArchivedOrder(order, itemsByOrder.getOrDefault(order.getId(), List.of())))
+                .toList();
+    }
+
+    private OrderResponse toArchivedDetailResponse(ArchivedOrder order) {
+        return OrderResponse.fromArchivedOrder(order, archivedOrderItemRepository.findDetailsByOrderId(order.getId()));
+    }
+
+    private Map<Long, List<OrderItemResponse>> groupByOrder(List<OrderItemSummary> summaries) {
+        return summaries.stream()
+                .collect(Collectors.groupingBy(
+                        OrderItemSummary::getOrderId,
+                        Collectors.mapping(OrderItemResponse::fromSummary, Collectors.toList())
+                ));
+    }
+
+    private String encodeCursor(Long id, LocalDateTime createdAt) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((id + ":" + createdAt).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeCursor(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = decoded.split(":", 2);
+            Long.parseLong(parts[0]);
+            LocalDateTime.parse(parts[1]);
+            return parts;
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException | DateTimeParseException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+
+    private void checkOwner(Long ownerId, Long userId) {
+        if (userId != null && !ownerId.equals(userId)) {
+            throw new RuntimeException("Unauthorized access to order");
+        }
+    }
+}
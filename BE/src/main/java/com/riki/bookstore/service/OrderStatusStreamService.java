@@ -0,0 +1,54 @@
+package com.riki.bookstore.service;
+
+import com.riki.bookstore.config.StreamScheduler;
+import com.riki.bookstore.dto.OrderStatusEventResponse;
+import com.riki.bookstore.event.OrderStatusChangedEvent;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes order status changes to the owning customer's open event streams.
+ */
+@Service
+public class OrderStatusStreamService {
+
+    private final StreamScheduler sseScheduler;
+    private final SseBroadcaster broadcaster;
+    private final long heartbeatSeconds;
+
+    public OrderStatusStreamService(
+            ExecutorService sseExecutor,
+            StreamScheduler sseScheduler,
+            @Value("${stream.timeout-ms:1800000}") long timeoutMillis,
+            @Value("${stream.buffer-size:16}") int bufferSize,
+            @Value("${stream.max-connections:10000}") int maxConnections,
+            @Value("${stream.heartbeat-seconds:20}") long heartbeatSeconds,
+            @Value("${stream.send-timeout-ms:10000}") long sendTimeoutMillis
+    ) {
+        this.sseScheduler = sseScheduler;
+        this.broadcaster = new SseBroadcaster(sseExecutor, "order-status", timeoutMillis, bufferSize, maxConnections,
+                sendTimeoutMillis);
+        this.heartbeatSeconds = heartbeatSeconds;
+    }
+
+    @PostConstruct
+    public void startHeartbeat() {
+        sseScheduler.scheduleAtFixedRate(broadcaster::heartbeat, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+    }
+
+    public SseEmitter subscribe(Long userId) {
+        return broadcaster.subscribe(userId);
+    }
+
+    // Delivered once the status change is committed; runs immediately when published outside a transaction
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        broadcaster.publish(event.getUserId(), OrderStatusEventResponse.fromEvent(event));
+    }
+}
@@ -5,7 +5,6 @@ import com.riki.bookstore.dto.ProfileUpdateRequest;
 import com.riki.bookstore.entity.User;
 import com.riki.bookstore.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
 import java.time.format.DateTimeFormatter;
@@ -16,17 +15,15 @@ public class ProfileService {
     
     private final UserRepository userRepository;
     
-    public ProfileResponse getCurrentUserProfile() {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
+    public ProfileResponse getProfile(Long userId) {
+        User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
         return mapToProfileResponse(user);
     }
     
-    public ProfileResponse updateProfile(ProfileUpdateRequest request) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
+    public ProfileResponse updateProfile(Long userId, ProfileUpdateRequest request) {
+        User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
         // Check if email already exists (excluding current user)
@@ -0,0 +1,239 @@
+package com.riki.bookstore.service;
+
+import com.riki.bookstore.dto.PageResponse;
+import com.riki.bookstore.dto.ReorderRunResponse;
+import com.riki.bookstore.dto.ReorderSuggestionResponse;
+import com.riki.bookstore.entity.Order;
+import com.riki.bookstore.entity.ReorderSuggestion;
+import com.riki.bookstore.repository.BookRepository;
+import com.riki.bookstore.repository.OrderItemRepository;
+import com.riki.bookstore.repository.ReorderSuggestionRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Batch job that turns recent sales into restock suggestions. Order lines in the sales window are
+ * read in keyset-paginated chunks of {@code chunk-size} rows, copied into primitive arrays and summed
+ * per book in parallel. Each worker slice adds into its own counter array, allocated once per run, so
+ * heap use is bounded by one chunk plus one counter per book and slice regardless of how many lines
+ * there are. Cancelled orders are not counted. A book is suggested when its stock will not cover the
+ * lead time plus the safety margin at the current sales velocity.
+ */
+@Slf4j
+@Service
+public class ReorderSuggestionService {
+    
+    private static final int MIN_SLICE_ROWS = 8192;
+    
+    private final OrderItemRepository orderItemRepository;
+    private final BookRepository bookRepository;
+    private final ReorderSuggestionRepository reorderSuggestionRepository;
+    private final TransactionTemplate newTransaction;
+    private final ForkJoinPool pool;
+    private final int windowDays;
+    private final int leadTimeDays;
+    private final int safetyDays;
+    private final int chunkSize;
+    
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile ReorderRunResponse lastRun;
+    
+    public ReorderSuggestionService(
+            OrderItemRepository orderItemRepository,
+            BookRepository bookRepository,
+            ReorderSuggestionRepository reorderSuggestionRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${inventory.reorder.parallelism:0}") int parallelism,
+            @Value("${inventory.reorder.window-days:30}") int windowDays,
+            @Value("${inventory.reorder.lead-time-days:14}") int leadTimeDays,
+            @Value("${inventory.reorder.safety-days:7}") int safetyDays,
+            @Value("${inventory.reorder.chunk-size:50000}") int chunkSize
+    ) {
+        this.orderItemRepository = orderItemRepository;
+        this.bookRepository = bookRepository;
+        this.reorderSuggestionRepository = reorderSuggestionRepository;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.windowDays = windowDays;
+        this.leadTimeDays = leadTimeDays;
+        this.safetyDays = safetyDays;
+        this.chunkSize = chunkSize;
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+    
+    @Scheduled(cron = "${inventory.reorder.cron:0 30 2 * * *}")
+    public void scheduledRun() {
+        if (running.get()) {
+            log.info("Reorder suggestion run still in progress, skipping this one");
+            return;
+        }
+        run();
+    }
+    
+    public ReorderRunResponse getLastRun() {
+        return lastRun;
+    }
+    
+    public PageResponse<ReorderSuggestionResponse> getSuggestions(int pageIndex, int pageSize) {
+        Page<ReorderSuggestionResponse> page = reorderSuggestionRepository.findAllWithBooks(PageRequest.of(pageIndex, pageSize));
+        return new PageResponse<>(page.getContent(), page.getNumber(), page.getSize(),
+                page.getTotalElements(), page.getTotalPages());
+    }
+    
+    public ReorderRunResponse run() {
+        if (!running.compareAndSet(false, true)) {
+            throw new RuntimeException("Reorder suggestions are already being computed");
+        }
+        try {
+            ReorderRunResponse result = compute();
+            lastRun = result;
+            log.info("Computed {} reorder suggestions for {} books from {} order lines in {} ms",
+                    result.getSuggestions(), result.getBooks(), result.getOrderLines(), result.getTookMillis());
+            return result;
+        } finally {
+            running.set(false);
+        }
+    }
+    
+    private ReorderRunResponse compute() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long startedNanos = System.nanoTime();
+        LocalDateTime since = startedAt.minusDays(windowDays);
+        
+        // Books as sorted parallel arrays; an order line's book is found by binary search
+        List<Object[]> stockRows = bookRepository.findAllStock();
+        long[] bookIds = new long[stockRows.size()];
+        int[] stock = new int[stockRows.size()];
+        for (int i = 0; i < bookIds.length; i++) {
+            bookIds[i] = ((Number) stockRows.get(i)[0]).longValue();
+            stock[i] = ((Number) stockRows.get(i)[1]).intValue();
+        }
+        
+        // One counter array per slice, reused for every chunk and summed once at the end
+        long[][] sliceTotals = new long[pool.getParallelism()][bookIds.length];
+        long orderLines = 0;
+        long afterId = 0;
+        PageRequest chunk = PageRequest.of(0, chunkSize);
+        while (true) {
+            List<Object[]> rows = orderItemRepository.findSalesChunk(afterId, since, Order.OrderStatus.CANCELLED, chunk);
+            if (rows.isEmpty()) {
+                break;
+            }
+            
+            int size = rows.size();
+            long[] lineBookIds = new long[size];
+            int[] quantities = new int[size];
+            for (int i = 0; i < size; i++) {
+                Object[] row = rows.get(i);
+                lineBookIds[i] = ((Number) row[1]).longValue();
+                quantities[i] = ((Number) row[2]).intValue();
+            }
+            afterId = ((Number) rows.get(size - 1)[0]).longValue();
+            
+            int slices = Math.max(1, Math.min(sliceTotals.length, size / MIN_SLICE_ROWS));
+            pool.invoke(new SumTask(bookIds, lineBookIds, quantities, sliceTotals, slices, 0, slices));
+            orderLines += size;
+            
+            if (size < chunkSize) {
+                break;
+            }
+        }
+        
+        long[] unitsSold = sliceTotals[0];
+        for (int slice = 1; slice < sliceTotals.length; slice++) {
+            for (int i = 0; i < unitsSold.length; i++) {
+                unitsSold[i] += sliceTotals[slice][i];
+            }
+        }
+        
+        List<ReorderSuggestion> suggestions = new ArrayList<>();
+        double coverDays = leadTimeDays + safetyDays;
+        for (int i = 0; i < bookIds.length; i++) {
+            if (unitsSold[i] == 0) {
+                continue;
+            }
+            double velocity = (double) unitsSold[i] / windowDays;
+            int needed = (int) Math.ceil(velocity * coverDays) - stock[i];
+            if (needed > 0) {
+                suggestions.add(new ReorderSuggestion(null, bookIds[i], stock[i], unitsSold[i], velocity,
+                        Math.max(stock[i], 0) / velocity, needed, startedAt));
+            }
+        }
+        
+        newTransaction.executeWithoutResult(tx -> {
+            reorderSuggestionRepository.deleteAllInBatch();
+            reorderSuggestionRepository.saveAll(suggestions);
+        });
+        
+        return new ReorderRunResponse(startedAt, (System.nanoTime() - startedNanos) / 1_000_000, windowDays,
+                orderLines, bookIds.length, suggestions.size());
+    }
+    
+    /**
+     * Adds the units sold in chunk slices {@code fromSlice..toSlice} (exclusive) to the matching rows of
+     * {@code sliceTotals}, indexed like {@code bookIds}. Each slice is written by exactly one task.
+     */
+    private static class SumTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        
+        private final long[] bookIds;
+        private final long[] lineBookIds;
+        private final int[] quantities;
+        private final long[][] sliceTotals;
+        private final int slices;
+        private final int fromSlice;
+        private final int toSlice;
+        
+        SumTask(long[] bookIds, long[] lineBookIds, int[] quantities, long[][] sliceTotals,
+                int slices, int fromSlice, int toSlice) {
+            this.bookIds = bookIds;
+            this.lineBookIds = lineBookIds;
+            this.quantities = quantities;
+            this.sliceTotals = sliceTotals;
+            this.slices = slices;
+            this.fromSlice = fromSlice;
+            this.toSlice = toSlice;
+        }
+        
+        @Override
+        protected void compute() {
+            if (toSlice - fromSlice == 1) {
+                long[] totals = sliceTotals[fromSlice];
+                int rows = lineBookIds.length;
+                int to = (int) ((long) rows * toSlice / slices);
+                for (int row = (int) ((long) rows * fromSlice / slices); row < to; row++) {
+                    int index = Arrays.binarySearch(bookIds, lineBookIds[row]);
+                    if (index >= 0) { // books created after the run started are skipped
+                        totals[index] += quantities[row];
+                    }
+                }
+                return;
+            }
+            
+            int middle = (fromSlice + toSlice) >>> 1;
+            invokeAll(new SumTask(bookIds, lineBookIds, quantities, sliceTotals, slices, fromSlice, middle),
+                    new SumTask(bookIds, lineBookIds, quantities, sliceTotals, slices, middle, toSlice));
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package com.riki.bookstore.service;
+
+import com.riki.bookstore.dto.SalesAnalyticsResponse;
+import com.riki.bookstore.dto.SalesBreakdownRow;
+import com.riki.bookstore.dto.SalesFactRow;
+import com.riki.bookstore.event.OrderPlacedEvent;
+import com.riki.bookstore.repository.ArchivedOrderItemRepository;
+import com.riki.bookstore.repository.BookRepository;
+import com.riki.bookstore.repository.CategoryRepository;
+import com.riki.bookstore.repository.OrderItemRepository;
+import com.riki.bookstore.repository.OrderRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Sales breakdowns (per day, category, author and top sellers) computed from an in-memory
+ * {@link SalesFactStore} instead of GROUP BYs over order_items on the primary database.
+ * The store is loaded from hot and archived order lines at startup and appended on every new order.
+ * A load that fails is discarded and retried every {@code load-retry-ms}; until one succeeds queries
+ * are refused rather than answered from partial totals.
+ */
+@Slf4j
+@Service
+public class SalesAnalyticsService {
+
+    public enum SortBy { QUANTITY, REVENUE }
+
+    private static final int LOAD_BATCH_SIZE = 10_000;
+    private static final int MAX_DAILY_RANGE_DAYS = 3660;
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final ArchivedOrderItemRepository archivedOrderItemRepository;
+    private final BookRepository bookRepository;
+    private final CategoryRepository categoryRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ForkJoinPool analyticsPool;
+    private final SalesFactStore store;
+
+    // Orders placed while the initial load runs are queued and applied afterwards
+    private final Object loadLock = new Object();
+    private volatile boolean loaded;
+    private volatile boolean loadFailed;
+    private final AtomicBoolean loading = new AtomicBoolean();
+    private List<Long> pendingOrderIds = new ArrayList<>();
+
+    public SalesAnalyticsService(OrderRepository orderRepository,
+                                 OrderItemRepository orderItemRepository,
+                                 ArchivedOrderItemRepository archivedOrderItemRepository,
+                                 BookRepository bookRepository,
+                                 CategoryRepository categoryRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${analytics.parallelism:0}") int parallelism) {
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.archivedOrderItemRepository = archivedOrderItemRepository;
+        this.bookRepository = bookRepository;
+        this.categoryRepository = categoryRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        // Both tables are read from one snapshot, so lines the archival job moves in between are seen exactly once
+        this.readOnlyTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.analyticsPool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.store = new SalesFactStore(analyticsPool);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        analyticsPool.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startLoading() {
+        if (loading.compareAndSet(false, true)) {
+            analyticsPool.execute(this::load);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.load-retry-ms:60000}")
+    public void retryFailedLoad() {
+        if (loadFailed) {
+            startLoading();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        synchronized (loadLock) {
+            if (!loaded) {
+                pendingOrderIds.add(event.getOrderId());
+                return;
+            }
+        }
+        store.appendAll(orderItemRepository.findSalesFactsByOrderId(event.getOrderId()));
+    }
+
+    public SalesAnalyticsResponse revenueByDay(LocalDate from, LocalDate to) {
+        if (to.toEpochDay() - from.toEpochDay() >= MAX_DAILY_RANGE_DAYS) {
+            throw new RuntimeException("Daily breakdown is limited to " + MAX_DAILY_RANGE_DAYS + " days");
+        }
+        return query(from, to, (fromDay, toDay) -> {
+            long[][] totals = store.sumByDay(fromDay, toDay);
+            List<SalesBreakdownRow> rows = new ArrayList<>();
+            for (int i = 0; i < totals[0].length; i++) {
+                String day = from.plusDays(i).toString();
+                rows.add(new SalesBreakdownRow(day, day, totals[0][i], toMoney(totals[1][i])));
+            }
+            return rows;
+        });
+    }
+
+    public SalesAnalyticsResponse revenueByCategory(LocalDate from, LocalDate to) {
+        return query(from, to, (fromDay, toDay) -> {
+            Map<Long, long[]> totals = store.sumByCategory(fromDay, toDay);
+            Map<Long, String> names = new HashMap<>();
+            categoryRepository.findAllById(totals.keySet()).forEach(c -> names.put(c.getId(), c.getName()));
+            return toRows(totals, SortBy.REVENUE, totals.size(), String::valueOf, names::get);
+        });
+    }
+
+    public SalesAnalyticsResponse revenueByAuthor(LocalDate from, LocalDate to, int limit) {
+        checkLimit(limit);
+        return query(from, to, (fromDay, toDay) ->
+                toRows(store.sumByAuthor(fromDay, toDay), SortBy.REVENUE, limit, Function.identity(), Function.identity()));
+    }
+
+    public SalesAnalyticsResponse topSellers(LocalDate from, LocalDate to, int limit, SortBy sortBy) {
+        checkLimit(limit);
+        return query(from, to, (fromDay, toDay) -> {
+            List<SalesBreakdownRow> rows = toRows(store.sumByBook(fromDay, toDay), sortBy, limit, String::valueOf, id -> null);
+            // Titles only for the rows being returned
+            Map<String, String> titles = new HashMap<>();
+            if (!rows.isEmpty()) {
+                bookRepository.findTitlesByIdIn(rows.stream().map(r -> Long.valueOf(r.getKey())).toList())
+                        .forEach(row -> titles.put(String.valueOf(row[0]), (String) row[1]));
+            }
+            rows.forEach(row -> row.setLabel(titles.get(row.getKey())));
+            return rows;
+        });
+    }
+
+    private void load() {
+        long startedAt = System.currentTimeMillis();
+        List<Long> missing;
+        try {
+            // The consistent snapshot starts at the first read, so the hot table, its max ID and the archive
+            // all come from the same point in time
+            missing = readOnlyTransaction.execute(tx -> {
+                Long maxId = orderRepository.findMaxId();
+                try (Stream<SalesFactRow> rows = orderItemRepository.streamSalesFacts(maxId)) {
+                    appendInBatches(rows);
+                }
+                try (Stream<SalesFactRow> rows = archivedOrderItemRepository.streamSalesFacts()) {
+                    appendInBatches(rows);
+                }
+                return takePendingNotInSnapshot();
+            });
+        } catch (RuntimeException e) {
+            log.error("Loading sales analytics failed, retrying later", e);
+            synchronized (loadLock) {
+                // The retry's snapshot will contain every order seen so far, including any appended directly
+                loaded = false;
+                pendingOrderIds = new ArrayList<>();
+            }
+            store.clear();
+            loadFailed = true;
+            loading.set(false);
+            return;
+        }
+
+        missing.forEach(orderId -> store.appendAll(orderItemRepository.findSalesFactsByOrderId(orderId)));
+
+        log.info("Loaded {} order lines into sales analytics in {} ms", store.size(), System.currentTimeMillis() - startedAt);
+    }
+
+    /**
+     * Still inside the load's snapshot: switches to appending orders as they are placed and returns the queued
+     * orders the snapshot did not contain. IDs are not committed in order, so a queued order can have a lower
+     * ID than ones that were loaded; only asking the snapshot tells. Holding the lock keeps orders placed
+     * meanwhile from being appended before the check.
+     */
+    private List<Long> takePendingNotInSnapshot() {
+        synchronized (loadLock) {
+            Set<Long> loadedIds = pendingOrderIds.isEmpty()
+                    ? Set.of()
+                    : new HashSet<>(orderRepository.findIdsByIdIn(pendingOrderIds));
+            List<Long> missing = pendingOrderIds.stream()
+                    .filter(orderId -> !loadedIds.contains(orderId))
+                    .toList();
+            pendingOrderIds = null;
+            loaded = true;
+            loadFailed = false;
+            return missing;
+        }
+    }
+
+    private void appendInBatches(Stream<SalesFactRow> rows) {
+        List<SalesFactRow> batch = new ArrayList<>(LOAD_BATCH_SIZE);
+        rows.forEach(row -> {
+            batch.add(row);
+            if (batch.size() == LOAD_BATCH_SIZE) {
+                store.appendAll(batch);
+                batch.clear();
+            }
+        });
+        store.appendAll(batch);
+    }
+
+    private SalesAnalyticsResponse query(LocalDate from, LocalDate to, RangeQuery query) {
+        if (!loaded) {
+            throw new RuntimeException(loadFailed
+                    ? "Sales analytics failed to load and will be retried, please try again later"
+                    : "Sales analytics are still loading, please retry shortly");
+        }
+        if (from.isAfter(to)) {
+            throw new RuntimeException("'from' must not be after 'to'");
+        }
+
+        long startedAt = System.currentTimeMillis();
+        int scanned = store.size();
+        List<SalesBreakdownRow> rows = query.run((int) from.toEpochDay(), (int) to.toEpochDay());
+
+        return new SalesAnalyticsResponse(from, to, scanned, System.currentTimeMillis() - startedAt, rows);
+    }
+
+    private void checkLimit(int limit) {
+        if (limit < 1) {
+            throw new RuntimeException("'limit' must be at least 1");
+        }
+    }
+
+    private <K> List<SalesBreakdownRow> toRows(Map<K, long[]> totals, SortBy sortBy, int limit,
+                                               Function<K, String> key, Function<K, String> label) {
+        int column = sortBy == SortBy.QUANTITY ? 0 : 1;
+        return totals.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<K, long[]> e) -> e.getValue()[column]).reversed())
+                .limit(limit)
+                .map(e -> new SalesBreakdownRow(key.apply(e.getKey()), label.apply(e.getKey()),
+                        e.getValue()[0], toMoney(e.getValue()[1])))
+                .toList();
+    }
+
+    private BigDecimal toMoney(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    @FunctionalInterface
+    private interface RangeQuery {
+        List<SalesBreakdownRow> run(int fromDay, int toDay);
+    }
+}
@@ -0,0 +1,275 @@
+package com.riki.bookstore.service;
+
+import com.riki.bookstore.dto.SalesFactRow;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * Append-only, column-oriented store of order lines: one primitive array per attribute.
+ * Appends are serialized and publish an immutable {@link Columns} view, so scans never lock and
+ * always see a consistent prefix. Aggregations split the rows into ranges scanned in parallel
+ * on the given fork-join pool.
+ */
+public class SalesFactStore {
+
+    private static final int SCAN_CHUNK_ROWS = 1 << 16;
+
+    private final ForkJoinPool pool;
+    private final Object appendLock = new Object();
+    private final Map<String, Integer> authorCodes = new HashMap<>(); // guarded by appendLock
+
+    private volatile Columns columns = new Columns(1024);
+
+    public SalesFactStore(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public int size() {
+        return columns.size;
+    }
+
+    public void appendAll(List<SalesFactRow> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        synchronized (appendLock) {
+            Columns current = columns.ensureCapacity(columns.size + rows.size());
+            int row = current.size;
+            String[] authorNames = current.authorNames;
+            int authorCount = current.authorCount;
+
+            for (SalesFactRow fact : rows) {
+                Integer authorCode = authorCodes.get(fact.getAuthor());
+                if (authorCode == null) {
+                    authorCode = authorCount++;
+                    authorCodes.put(fact.getAuthor(), authorCode);
+                    if (authorCode == authorNames.length) {
+                        authorNames = Arrays.copyOf(authorNames, authorNames.length * 2);
+                    }
+                    authorNames[authorCode] = fact.getAuthor();
+                }
+
+                current.bookIds[row] = fact.getBookId();
+                current.categoryIds[row] = fact.getCategoryId();
+                current.authorCodes[row] = authorCode;
+                current.epochDays[row] = (int) fact.getOrderedAt().toLocalDate().toEpochDay();
+                current.quantities[row] = fact.getQuantity();
+                current.priceCents[row] = fact.getPrice().movePointRight(2).longValue();
+                row++;
+            }
+
+            // Volatile write: readers of the new view also see every array element written above
+            columns = current.withSize(row, authorNames, authorCount);
+        }
+    }
+
+    /**
+     * Drops every row, e.g. before reloading after a failed load.
+     */
+    public void clear() {
+        synchronized (appendLock) {
+            authorCodes.clear();
+            columns = new Columns(1024);
+        }
+    }
+
+    /**
+     * Quantity and revenue (cents) per day in {@code fromDay..toDay}, indexed by {@code day - fromDay}.
+     */
+    public long[][] sumByDay(int fromDay, int toDay) {
+        int days = toDay - fromDay + 1;
+        return scan(fromDay, toDay,
+                () -> new long[2][days],
+                (acc, c, row) -> {
+                    int offset = c.epochDays[row] - fromDay;
+                    acc[0][offset] += c.quantities[row];
+                    acc[1][offset] += c.quantities[row] * c.priceCents[row];
+                },
+                (a, b) -> {
+                    for (int i = 0; i < days; i++) {
+                        a[0][i] += b[0][i];
+                        a[1][i] += b[1][i];
+                    }
+                    return a;
+                });
+    }
+
+    /**
+     * Quantity and revenue (cents) per category ID.
+     */
+    public Map<Long, long[]> sumByCategory(int fromDay, int toDay) {
+        return scan(fromDay, toDay, HashMap::new,
+                (acc, c, row) -> add(acc.computeIfAbsent(c.categoryIds[row], k -> new long[2]), c, row),
+                SalesFactStore::mergeInto);
+    }
+
+    /**
+     * Quantity and revenue (cents) per book ID.
+     */
+    public Map<Long, long[]> sumByBook(int fromDay, int toDay) {
+        return scan(fromDay, toDay, HashMap::new,
+                (acc, c, row) -> add(acc.computeIfAbsent(c.bookIds[row], k -> new long[2]), c, row),
+                SalesFactStore::mergeInto);
+    }
+
+    /**
+     * Quantity and revenue (cents) per author name.
+     */
+    public Map<String, long[]> sumByAuthor(int fromDay, int toDay) {
+        Columns view = columns;
+        int authors = view.authorCount;
+        long[][] totals = scan(view, fromDay, toDay,
+                () -> new long[2][authors],
+                (acc, c, row) -> {
+                    acc[0][c.authorCodes[row]] += c.quantities[row];
+                    acc[1][c.authorCodes[row]] += c.quantities[row] * c.priceCents[row];
+                },
+                (a, b) -> {
+                    for (int i = 0; i < authors; i++) {
+                        a[0][i] += b[0][i];
+                        a[1][i] += b[1][i];
+                    }
+                    return a;
+                });
+
+        Map<String, long[]> result = new HashMap<>();
+        for (int code = 0; code < authors; code++) {
+            if (totals[0][code] > 0) {
+                result.put(view.authorNames[code], new long[]{totals[0][code], totals[1][code]});
+            }
+        }
+        return result;
+    }
+
+    private static void add(long[] totals, Columns c, int row) {
+        totals[0] += c.quantities[row];
+        totals[1] += c.quantities[row] * c.priceCents[row];
+    }
+
+    private static Map<Long, long[]> mergeInto(Map<Long, long[]> a, Map<Long, long[]> b) {
+        b.forEach((key, totals) -> a.merge(key, totals, (x, y) -> {
+            x[0] += y[0];
+            x[1] += y[1];
+            return x;
+        }));
+        return a;
+    }
+
+    private <A> A scan(int fromDay, int toDay, Supplier<A> identity, RowAccumulator<A> accumulator, BinaryOperator<A> combiner) {
+        return scan(columns, fromDay, toDay, identity, accumulator, combiner);
+    }
+
+    private <A> A scan(Columns view, int fromDay, int toDay, Supplier<A> identity,
+                       RowAccumulator<A> accumulator, BinaryOperator<A> combiner) {
+        return pool.invoke(new ScanTask<>(view, 0, view.size, fromDay, toDay, identity, accumulator, combiner));
+    }
+
+    @FunctionalInterface
+    private interface RowAccumulator<A> {
+        void accept(A accumulator, Columns columns, int row);
+    }
+
+    private static class ScanTask<A> extends RecursiveTask<A> {
+        private static final long serialVersionUID = 1L;
+
+        private final Columns view;
+        private final int from;
+        private final int to;
+        private final int fromDay;
+        private final int toDay;
+        private final Supplier<A> identity;
+        private final RowAccumulator<A> accumulator;
+        private final BinaryOperator<A> combiner;
+
+        ScanTask(Columns view, int from, int to, int fromDay, int toDay, Supplier<A> identity,
+                 RowAccumulator<A> accumulator, BinaryOperator<A> combiner) {
+            this.view = view;
+            this.from = from;
+            this.to = to;
+            this.fromDay = fromDay;
+            this.toDay = toDay;
+            this.identity = identity;
+            this.accumulator = accumulator;
+            this.combiner = combiner;
+        }
+
+        @Override
+        protected A compute() {
+            if (to - from <= SCAN_CHUNK_ROWS) {
+                A result = identity.get();
+                int[] days = view.epochDays;
+                for (int row = from; row < to; row++) {
+                    if (days[row] >= fromDay && days[row] <= toDay) {
+                        accumulator.accept(result, view, row);
+                    }
+                }
+                return result;
+            }
+
+            int middle = (from + to) >>> 1;
+            ScanTask<A> left = new ScanTask<>(view, from, middle, fromDay, toDay, identity, accumulator, combiner);
+            ScanTask<A> right = new ScanTask<>(view, middle, to, fromDay, toDay, identity, accumulator, combiner);
+            left.fork();
+            A rightResult = right.compute();
+            return combiner.apply(left.join(), rightResult);
+        }
+    }
+
+    /**
+     * A published view of the columns; only rows below {@code size} are visible to readers.
+     */
+    private static class Columns {
+        private final long[] bookIds;
+        private final long[] categoryIds;
+        private final int[] authorCodes;
+        private final int[] epochDays;
+        private final int[] quantities;
+        private final long[] priceCents;
+        private final int size;
+        private final String[] authorNames;
+        private final int authorCount;
+
+        Columns(int capacity) {
+            this(new long[capacity], new long[capacity], new int[capacity], new int[capacity], new int[capacity],
+                    new long[capacity], 0, new String[64], 0);
+        }
+
+        private Columns(long[] bookIds, long[] categoryIds, int[] authorCodes, int[] epochDays, int[] quantities,
+                        long[] priceCents, int size, String[] authorNames, int authorCount) {
+            this.bookIds = bookIds;
+            this.categoryIds = categoryIds;
+            this.authorCodes = authorCodes;
+            this.epochDays = epochDays;
+            this.quantities = quantities;
+            this.priceCents = priceCents;
+            this.size = size;
+            this.authorNames = authorNames;
+            this.authorCount = authorCount;
+        }
+
+        // Rows past size are never read by existing views, so arrays can be shared until they must grow
+        Columns ensureCapacity(int required) {
+            if (required <= bookIds.length) {
+                return this;
+            }
+            int capacity = Math.max(required, bookIds.length + (bookIds.length >> 1));
+            return new Columns(Arrays.copyOf(bookIds, capacity), Arrays.copyOf(categoryIds, capacity),
+                    Arrays.copyOf(authorCodes, capacity), Arrays.copyOf(epochDays, capacity),
+                    Arrays.copyOf(quantities, capacity), Arrays.copyOf(priceCents, capacity),
+                    size, authorNames, authorCount);
+        }
+
+        Columns withSize(int newSize, String[] newAuthorNames, int newAuthorCount) {
+            return new Columns(bookIds, categoryIds, authorCodes, epochDays, quantities, priceCents,
+                    newSize, newAuthorNames, newAuthorCount);
+        }
+    }
+}
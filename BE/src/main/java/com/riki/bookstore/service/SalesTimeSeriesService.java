@@ -0,0 +1,195 @@
+package com.riki.bookstore.service;
+
+import com.riki.bookstore.config.StreamScheduler;
+import com.riki.bookstore.dto.SalesPointResponse;
+import com.riki.bookstore.dto.SalesTimeSeriesResponse;
+import com.riki.bookstore.event.OrderPlacedEvent;
+import com.riki.bookstore.repository.OrderRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-minute order count and revenue for the last {@code retention-minutes}, held in a ring of
+ * buckets indexed by minute. Writers only touch {@link LongAdder}s and swap stale buckets with CAS,
+ * so recording never blocks and reading a window never goes to the database.
+ */
+@Slf4j
+@Service
+public class SalesTimeSeriesService {
+
+    private static final DateTimeFormatter MINUTE_KEY = DateTimeFormatter.ofPattern("yyyyMMddHHmm");
+
+    private final OrderRepository orderRepository;
+    private final StreamScheduler sseScheduler;
+    private final SseBroadcaster broadcaster;
+    private final int retentionMinutes;
+    private final long pushIntervalMillis;
+    private final long heartbeatSeconds;
+
+    private final AtomicReferenceArray<Bucket> ring;
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    public SalesTimeSeriesService(
+            OrderRepository orderRepository,
+            ExecutorService sseExecutor,
+            StreamScheduler sseScheduler,
+            @Value("${sales.timeseries.retention-minutes:1440}") int retentionMinutes,
+            @Value("${sales.timeseries.push-interval-ms:1000}") long pushIntervalMillis,
+            @Value("${stream.timeout-ms:1800000}") long timeoutMillis,
+            @Value("${stream.buffer-size:16}") int bufferSize,
+            @Value("${stream.heartbeat-seconds:20}") long heartbeatSeconds,
+            @Value("${stream.send-timeout-ms:10000}") long sendTimeoutMillis,
+            @Value("${sales.timeseries.max-connections:100}") int maxConnections
+    ) {
+        this.orderRepository = orderRepository;
+        this.sseScheduler = sseScheduler;
+        this.broadcaster = new SseBroadcaster(sseExecutor, "sales", timeoutMillis, bufferSize, maxConnections,
+                sendTimeoutMillis);
+        this.retentionMinutes = retentionMinutes;
+        this.pushIntervalMillis = pushIntervalMillis;
+        this.heartbeatSeconds = heartbeatSeconds;
+        this.ring = new AtomicReferenceArray<>(retentionMinutes);
+    }
+
+    @PostConstruct
+    public void startPushing() {
+        // Coalesce bursts: at most one push per interval, and only when something was recorded
+        sseScheduler.scheduleAtFixedRate(this::pushIfChanged, pushIntervalMillis, pushIntervalMillis, TimeUnit.MILLISECONDS);
+        sseScheduler.scheduleAtFixedRate(broadcaster::heartbeat, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        LocalDateTime from = LocalDateTime.now().withSecond(0).withNano(0).minusMinutes(retentionMinutes - 1L);
+        int minutes = 0;
+        for (Object[] row : orderRepository.aggregateByMinuteSince(from)) {
+            LocalDateTime minute = LocalDateTime.parse((String) row[0], MINUTE_KEY);
+            record(minuteOf(minute), ((Number) row[1]).longValue(), (BigDecimal) row[2]);
+            minutes++;
+        }
+        log.info("Rebuilt sales time series from {} minutes of orders since {}", minutes, from);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        record(minuteOf(event.getCreatedAt()), 1, event.getTotalAmount());
+        dirty.set(true);
+    }
+
+    public SseEmitter subscribe() {
+        return broadcaster.subscribe(0L);
+    }
+
+    /**
+     * The last {@code windowMinutes} minutes up to and including the current one,
+     * summed into steps of {@code stepMinutes}.
+     */
+    public SalesTimeSeriesResponse getWindow(int windowMinutes, int stepMinutes) {
+        if (windowMinutes < 1 || windowMinutes > retentionMinutes) {
+            throw new RuntimeException("Window must be between 1 and " + retentionMinutes + " minutes");
+        }
+        if (stepMinutes < 1 || stepMinutes > windowMinutes) {
+            throw new RuntimeException("Step must be between 1 and the window size");
+        }
+
+        long current = currentMinute();
+        long first = current - windowMinutes + 1;
+        List<SalesPointResponse> points = new ArrayList<>();
+        long totalOrders = 0;
+        long totalRevenueCents = 0;
+
+        for (long stepStart = first; stepStart <= current; stepStart += stepMinutes) {
+            long orders = 0;
+            long revenueCents = 0;
+            for (long minute = stepStart; minute < stepStart + stepMinutes && minute <= current; minute++) {
+                Bucket bucket = ring.get(slot(minute));
+                if (bucket != null && bucket.minute == minute) {
+                    orders += bucket.orders.sum();
+                    revenueCents += bucket.revenueCents.sum();
+                }
+            }
+            points.add(new SalesPointResponse(toDateTime(stepStart), orders, BigDecimal.valueOf(revenueCents, 2)));
+            totalOrders += orders;
+            totalRevenueCents += revenueCents;
+        }
+
+        return new SalesTimeSeriesResponse(windowMinutes, stepMinutes, totalOrders,
+                BigDecimal.valueOf(totalRevenueCents, 2), points);
+    }
+
+    private void pushIfChanged() {
+        if (dirty.compareAndSet(true, false) && broadcaster.getConnectionCount() > 0) {
+            // Send the previous and current minute in full (an order may land just before the minute rolls);
+            // clients replace the points with the same timestamp
+            broadcaster.publishToAll(getWindow(2, 1).getPoints());
+        }
+    }
+
+    private void record(long minute, long orders, BigDecimal revenue) {
+        if (minute <= currentMinute() - retentionMinutes) {
+            return; // older than the ring
+        }
+
+        int slot = slot(minute);
+        Bucket bucket = ring.get(slot);
+        while (bucket == null || bucket.minute < minute) {
+            Bucket fresh = new Bucket(minute);
+            if (ring.compareAndSet(slot, bucket, fresh)) {
+                bucket = fresh;
+            } else {
+                bucket = ring.get(slot);
+            }
+        }
+        if (bucket.minute != minute) {
+            return; // slot already reused by a newer minute
+        }
+
+        bucket.orders.add(orders);
+        bucket.revenueCents.add(revenue.movePointRight(2).longValue());
+    }
+
+    private int slot(long minute) {
+        return (int) Math.floorMod(minute, (long) retentionMinutes);
+    }
+
+    private long currentMinute() {
+        return minuteOf(LocalDateTime.now());
+    }
+
+    // Minute index of a local wall-clock time; the offset only needs to be consistent, not correct
+    private long minuteOf(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+
+    private LocalDateTime toDateTime(long minute) {
+        return LocalDateTime.ofEpochSecond(minute * 60, 0, ZoneOffset.UTC);
+    }
+
+    private static class Bucket {
+        private final long minute;
+        private final LongAdder orders = new LongAdder();
+        private final LongAdder revenueCents = new LongAdder();
+
+        Bucket(long minute) {
+            this.minute = minute;
+        }
+    }
+}
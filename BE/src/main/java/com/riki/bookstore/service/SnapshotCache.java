@@ -0,0 +1,106 @@
+package com.riki.bookstore.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Stale-while-revalidate cache for expensive admin aggregates. A snapshot older than
+ * {@code max-age-ms} is still served immediately while one background refresh recomputes it;
+ * only the very first request for a key waits for the computation. Values that can come out
+ * incomplete are cached with {@link #get(String, Supplier, Predicate)}: an incomplete value never
+ * replaces a complete snapshot, and without one it is only kept for {@code partial-max-age-ms}.
+ */
+@Slf4j
+@Service
+public class SnapshotCache {
+
+    private final ExecutorService snapshotExecutor;
+    private final long maxAgeMillis;
+    private final long partialMaxAgeMillis;
+
+    private final Map<String, Snapshot<?>> snapshots = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Snapshot<?>>> refreshing = new ConcurrentHashMap<>();
+
+    public SnapshotCache(ExecutorService snapshotExecutor,
+                         @Value("${stats.snapshot.max-age-ms:30000}") long maxAgeMillis,
+                         @Value("${stats.snapshot.partial-max-age-ms:2000}") long partialMaxAgeMillis) {
+        this.snapshotExecutor = snapshotExecutor;
+        this.maxAgeMillis = maxAgeMillis;
+        this.partialMaxAgeMillis = partialMaxAgeMillis;
+    }
+
+    public <T> Snapshot<T> get(String key, Supplier<T> loader) {
+        return get(key, loader, value -> true);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> Snapshot<T> get(String key, Supplier<T> loader, Predicate<T> isComplete) {
+        Snapshot<T> snapshot = (Snapshot<T>) snapshots.get(key);
+        if (snapshot == null) {
+            try {
+                return (Snapshot<T>) refresh(key, loader, isComplete).join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        if (snapshot.getAgeMillis() > (snapshot.isComplete() ? maxAgeMillis : partialMaxAgeMillis)) {
+            refresh(key, loader, isComplete);
+        }
+        return snapshot;
+    }
+
+    public void invalidate(String key) {
+        snapshots.remove(key);
+    }
+
+    // At most one computation per key is in flight; concurrent callers share its future
+    private <T> CompletableFuture<Snapshot<?>> refresh(String key, Supplier<T> loader, Predicate<T> isComplete) {
+        CompletableFuture<Snapshot<?>> created = new CompletableFuture<>();
+        CompletableFuture<Snapshot<?>> running = refreshing.putIfAbsent(key, created);
+        if (running != null) {
+            return running;
+        }
+
+        snapshotExecutor.execute(() -> {
+            try {
+                T value = loader.get();
+                Snapshot<T> snapshot = new Snapshot<>(value, System.currentTimeMillis(), isComplete.test(value));
+                // An incomplete result is handed to whoever is waiting but keeps an older complete snapshot in place
+                snapshots.compute(key, (k, previous) ->
+                        snapshot.isComplete() || previous == null || !previous.isComplete() ? snapshot : previous);
+                created.complete(snapshot);
+            } catch (RuntimeException e) {
+                // Keep serving the previous snapshot; the next stale read retries
+                log.warn("Refreshing snapshot '{}' failed: {}", key, e.getMessage());
+                created.completeExceptionally(e);
+            } finally {
+                refreshing.remove(key, created);
+            }
+        });
+        return created;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Snapshot<T> {
+        private final T value;
+        private final long computedAtMillis;
+        private final boolean complete;
+
+        public long getAgeMillis() {
+            return System.currentTimeMillis() - computedAtMillis;
+        }
+    }
+}
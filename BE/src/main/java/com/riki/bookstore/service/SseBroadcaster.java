@@ -0,0 +1,177 @@
+package com.riki.bookstore.service;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process fan-out of server-sent events to subscribers grouped by a key (e.g. user ID).
+ * Connections are held asynchronously, so no request thread is parked per client; all sends
+ * run on the shared executor passed in. Each connection has a small bounded buffer and drops
+ * its oldest pending event when a client falls behind. Heartbeats go through the same buffer.
+ * <p>
+ * {@link #publish}, {@link #publishToAll} and {@link #heartbeat} only queue, so callers (the stream
+ * scheduler) never wait on a client. A client that stopped reading blocks its send until the
+ * container's write timeout ({@code server.tomcat.connection-timeout}) fails it; a send blocked
+ * longer than {@code sendTimeoutMillis} is dropped at the next heartbeat, so it gets no further
+ * events. Each connection sends on at most one thread at a time, so a stalled client holds at
+ * most one sender thread, for at most the write timeout.
+ */
+public class SseBroadcaster {
+
+    private static final Object HEARTBEAT = new Object();
+
+    private final Executor executor;
+    private final String eventName;
+    private final long timeoutMillis;
+    private final int bufferSize;
+    private final int maxConnections;
+    private final long sendTimeoutNanos;
+
+    private final Map<Long, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+
+    public SseBroadcaster(Executor executor, String eventName, long timeoutMillis, int bufferSize, int maxConnections,
+                          long sendTimeoutMillis) {
+        this.executor = executor;
+        this.eventName = eventName;
+        this.timeoutMillis = timeoutMillis;
+        this.bufferSize = bufferSize;
+        this.maxConnections = maxConnections;
+        this.sendTimeoutNanos = sendTimeoutMillis * 1_000_000;
+    }
+
+    public SseEmitter subscribe(Long key) {
+        if (connectionCount.incrementAndGet() > maxConnections) {
+            connectionCount.decrementAndGet();
+            throw new RuntimeException("Too many open event streams, please retry later");
+        }
+
+        Subscription subscription = new Subscription(key, new SseEmitter(timeoutMillis));
+        subscriptions.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(subscription);
+
+        subscription.emitter.onCompletion(subscription::remove);
+        subscription.emitter.onTimeout(subscription::remove);
+        subscription.emitter.onError(e -> subscription.remove());
+
+        return subscription.emitter;
+    }
+
+    public void publish(Long key, Object payload) {
+        Set<Subscription> targets = subscriptions.get(key);
+        if (targets != null) {
+            targets.forEach(subscription -> subscription.enqueue(payload));
+        }
+    }
+
+    public void publishToAll(Object payload) {
+        subscriptions.values().forEach(targets -> targets.forEach(subscription -> subscription.enqueue(payload)));
+    }
+
+    /**
+     * Queues a keep-alive comment for every connection and drops the ones whose send is stuck.
+     * Never sends itself, so a stalled client cannot hold up the caller.
+     */
+    public void heartbeat() {
+        long now = System.nanoTime();
+        subscriptions.values().forEach(targets -> targets.forEach(subscription -> subscription.heartbeat(now)));
+    }
+
+    public int getConnectionCount() {
+        return connectionCount.get();
+    }
+
+    private class Subscription {
+        private final Long key;
+        private final SseEmitter emitter;
+        private final ArrayBlockingQueue<Object> buffer = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean removed = new AtomicBoolean();
+        private volatile long sendStartedAt; // System.nanoTime() when the current send began, 0 while idle
+        private volatile boolean stalled;
+
+        Subscription(Long key, SseEmitter emitter) {
+            this.key = key;
+            this.emitter = emitter;
+        }
+
+        void enqueue(Object payload) {
+            while (!buffer.offer(payload)) {
+                buffer.poll(); // slow client: keep only the most recent events
+            }
+            scheduleDrain();
+        }
+
+        void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                executor.execute(this::drain);
+            }
+        }
+
+        void drain() {
+            try {
+                Object payload;
+                while (!removed.get() && (payload = buffer.poll()) != null) {
+                    sendStartedAt = System.nanoTime();
+                    if (payload == HEARTBEAT) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    } else {
+                        emitter.send(SseEmitter.event().name(eventName).data(payload, MediaType.APPLICATION_JSON));
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                close();
+            } finally {
+                sendStartedAt = 0;
+                draining.set(false);
+            }
+            if (stalled) {
+                // Dropped by heartbeat() while this send was blocked; the send has returned, so complete now
+                close();
+                return;
+            }
+            // An event may have arrived after the last poll but before the flag was cleared
+            if (!removed.get() && !buffer.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+
+        void heartbeat(long now) {
+            long startedAt = sendStartedAt;
+            if (startedAt != 0 && now - startedAt > sendTimeoutNanos) {
+                // Completing the emitter would wait for the blocked send, so only stop feeding it here
+                stalled = true;
+                remove();
+                return;
+            }
+            // Pending events keep the connection alive just as well
+            if (buffer.isEmpty()) {
+                enqueue(HEARTBEAT);
+            }
+        }
+
+        void close() {
+            remove();
+            emitter.complete();
+        }
+
+        void remove() {
+            if (!removed.compareAndSet(false, true)) {
+                return;
+            }
+            connectionCount.decrementAndGet();
+            subscriptions.computeIfPresent(key, (k, targets) -> {
+                targets.remove(this);
+                return targets.isEmpty() ? null : targets;
+            });
+        }
+    }
+}
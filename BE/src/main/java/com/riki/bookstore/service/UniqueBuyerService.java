@@ -0,0 +1,315 @@
+package com.riki.bookstore.service;
+
+import com.riki.bookstore.dto.SalesFactRow;
+import com.riki.bookstore.dto.UniqueBuyersResponse;
+import com.riki.bookstore.entity.BuyerSketch;
+import com.riki.bookstore.entity.BuyerSketch.Dimension;
+import com.riki.bookstore.event.OrderPlacedEvent;
+import com.riki.bookstore.repository.ArchivedOrderItemRepository;
+import com.riki.bookstore.repository.BuyerSketchRepository;
+import com.riki.bookstore.repository.OrderItemRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Approximate distinct buyers per day, store-wide and per book and category, kept as one
+ * {@link HyperLogLog} sketch per (dimension, key, day). Recent days live in memory and are updated on
+ * every order; dirty sketches are flushed to {@code buyer_sketches} periodically. Ranges and groups of
+ * keys are answered by merging sketches, so the cost depends on the number of days and keys, not orders.
+ */
+@Slf4j
+@Service
+public class UniqueBuyerService {
+    
+    private static final int MAX_RANGE_DAYS = 3660;
+    private static final int MAX_KEYS = 100;
+    // A STORE row with this key marks a completed backfill; real store-wide sketches use key 0
+    private static final long BACKFILL_MARKER_KEY = -1L;
+    private static final LocalDate BACKFILL_MARKER_DATE = LocalDate.EPOCH;
+    
+    private final BuyerSketchRepository buyerSketchRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final ArchivedOrderItemRepository archivedOrderItemRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate newTransaction;
+    private final int memoryDays;
+    
+    private final Map<SketchKey, HyperLogLog> sketches = new ConcurrentHashMap<>();
+    private final Set<SketchKey> dirty = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean backfillFailed = new AtomicBoolean();
+    
+    public UniqueBuyerService(
+            BuyerSketchRepository buyerSketchRepository,
+            OrderItemRepository orderItemRepository,
+            ArchivedOrderItemRepository archivedOrderItemRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${analytics.buyers.memory-days:35}") int memoryDays
+    ) {
+        this.buyerSketchRepository = buyerSketchRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.archivedOrderItemRepository = archivedOrderItemRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.memoryDays = memoryDays;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!buyerSketchRepository.existsByDimensionAndDimKey(Dimension.STORE, BACKFILL_MARKER_KEY)) {
+            backfill();
+        }
+        loadRecent();
+    }
+    
+    // Stored rows are merged rather than overwritten, so a backfill that stopped partway can simply run again
+    @Scheduled(fixedDelayString = "${analytics.buyers.backfill-retry-ms:300000}")
+    public void retryFailedBackfill() {
+        if (backfillFailed.compareAndSet(true, false)) {
+            backfill();
+            loadRecent();
+        }
+    }
+    
+    private void loadRecent() {
+        // Union is idempotent, so merging stored sketches into ones already touched by new orders is safe
+        for (BuyerSketch row : buyerSketchRepository.findByStatDateGreaterThanEqual(memoryStart())) {
+            SketchKey key = new SketchKey(row.getDimension(), row.getDimKey(), row.getStatDate());
+            sketches.computeIfAbsent(key, k -> new HyperLogLog()).merge(HyperLogLog.fromBytes(row.getRegisters()));
+        }
+        log.info("Loaded {} buyer sketches since {}", sketches.size(), memoryStart());
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        long hash = hash(event.getUserId());
+        LocalDate day = event.getCreatedAt().toLocalDate();
+        
+        add(sketches, new SketchKey(Dimension.STORE, 0L, day), hash);
+        for (SalesFactRow line : orderItemRepository.findSalesFactsByOrderId(event.getOrderId())) {
+            add(sketches, new SketchKey(Dimension.BOOK, line.getBookId(), day), hash);
+            add(sketches, new SketchKey(Dimension.CATEGORY, line.getCategoryId(), day), hash);
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${analytics.buyers.flush-interval-ms:60000}")
+    public void flush() {
+        int written = 0;
+        for (Iterator<SketchKey> it = dirty.iterator(); it.hasNext(); ) {
+            SketchKey key = it.next();
+            // Clear the flag before serializing: an add racing with the write marks the sketch dirty again
+            it.remove();
+            HyperLogLog sketch = sketches.get(key);
+            if (sketch != null) {
+                persist(key, sketch);
+                written++;
+            }
+        }
+        if (written > 0) {
+            log.debug("Flushed {} buyer sketches", written);
+        }
+    }
+    
+    @Scheduled(cron = "${analytics.buyers.evict-cron:0 5 0 * * *}")
+    public void evictOldDays() {
+        flush();
+        LocalDate start = memoryStart();
+        sketches.keySet().removeIf(key -> key.day().isBefore(start) && !dirty.contains(key));
+    }
+    
+    /**
+     * Estimated distinct buyers over {@code from}..{@code to} (inclusive) for the union of the given keys
+     * (ignored for {@link Dimension#STORE}), with a per-day breakdown.
+     */
+    public UniqueBuyersResponse estimate(Dimension dimension, List<Long> keys, LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new RuntimeException("'from' must not be after 'to'");
+        }
+        if (to.toEpochDay() - from.toEpochDay() >= MAX_RANGE_DAYS) {
+            throw new RuntimeException("Range is limited to " + MAX_RANGE_DAYS + " days");
+        }
+        List<Long> dimKeys = dimension == Dimension.STORE ? List.of(0L) : keys;
+        if (dimKeys == null || dimKeys.isEmpty()) {
+            throw new RuntimeException("At least one key is required for " + dimension);
+        }
+        if (dimKeys.size() > MAX_KEYS) {
+            throw new RuntimeException("At most " + MAX_KEYS + " keys can be combined");
+        }
+        
+        Map<LocalDate, HyperLogLog> byDay = new HashMap<>();
+        
+        // Days that have left memory come from the table
+        LocalDate start = memoryStart();
+        if (from.isBefore(start)) {
+            LocalDate storedTo = to.isBefore(start) ? to : start.minusDays(1);
+            for (BuyerSketch row : buyerSketchRepository.findByDimensionAndDimKeyInAndStatDateBetween(dimension, dimKeys, from, storedTo)) {
+                byDay.computeIfAbsent(row.getStatDate(), d -> new HyperLogLog()).merge(HyperLogLog.fromBytes(row.getRegisters()));
+            }
+        }
+        for (LocalDate day = from.isBefore(start) ? start : from; !day.isAfter(to); day = day.plusDays(1)) {
+            for (Long dimKey : dimKeys) {
+                HyperLogLog sketch = sketches.get(new SketchKey(dimension, dimKey, day));
+                if (sketch != null) {
+                    byDay.computeIfAbsent(day, d -> new HyperLogLog()).merge(sketch);
+                }
+            }
+        }
+        
+        HyperLogLog total = new HyperLogLog();
+        Map<String, Long> daily = new LinkedHashMap<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            HyperLogLog sketch = byDay.get(day);
+            daily.put(day.toString(), sketch != null ? sketch.estimate() : 0L);
+            if (sketch != null) {
+                total.merge(sketch);
+            }
+        }
+        
+        return new UniqueBuyersResponse(dimension.name(), dimKeys, from, to, total.estimate(), HyperLogLog.STANDARD_ERROR, daily);
+    }
+    
+    /**
+     * Builds sketches for all order history, archive first. Rows arrive in date order, so each day is
+     * written and dropped as soon as the stream moves past it. Hot-table rows can still fall on days the
+     * archive pass already wrote (the boundary day, old unfinished orders); {@link #persist} merges those
+     * into the stored sketch.
+     */
+    private void backfill() {
+        long startedAt = System.currentTimeMillis();
+        BackfillState pending = new BackfillState();
+        
+        try {
+            readOnlyTransaction.executeWithoutResult(tx -> {
+                try (Stream<Object[]> rows = archivedOrderItemRepository.streamBuyerFacts()) {
+                    rows.forEach(row -> backfillRow(pending, row));
+                }
+            });
+            readOnlyTransaction.executeWithoutResult(tx -> {
+                try (Stream<Object[]> rows = orderItemRepository.streamBuyerFacts()) {
+                    rows.forEach(row -> backfillRow(pending, row));
+                }
+            });
+        } catch (RuntimeException e) {
+            // What was read so far is still worth keeping; the marker is not written, so it runs again
+            pending.sketches.forEach(this::persist);
+            backfillFailed.set(true);
+            log.error("Backfilling buyer sketches failed, will retry", e);
+            return;
+        }
+        pending.sketches.forEach(this::persist);
+        persist(new SketchKey(Dimension.STORE, BACKFILL_MARKER_KEY, BACKFILL_MARKER_DATE), new HyperLogLog());
+        
+        log.info("Backfilled buyer sketches in {} ms", System.currentTimeMillis() - startedAt);
+    }
+    
+    private void backfillRow(BackfillState pending, Object[] row) {
+        long hash = hash((Long) row[0]);
+        LocalDate day = ((LocalDateTime) row[1]).toLocalDate();
+        
+        if (!day.equals(pending.day)) {
+            pending.sketches.entrySet().removeIf(entry -> {
+                if (!entry.getKey().day().isBefore(day)) {
+                    return false;
+                }
+                persist(entry.getKey(), entry.getValue());
+                return true;
+            });
+            pending.day = day;
+        }
+        
+        addTo(pending.sketches, new SketchKey(Dimension.STORE, 0L, day), hash);
+        addTo(pending.sketches, new SketchKey(Dimension.BOOK, (Long) row[2], day), hash);
+        addTo(pending.sketches, new SketchKey(Dimension.CATEGORY, (Long) row[3], day), hash);
+    }
+    
+    private void add(Map<SketchKey, HyperLogLog> target, SketchKey key, long hash) {
+        if (target.computeIfAbsent(key, k -> new HyperLogLog()).add(hash)) {
+            dirty.add(key);
+        }
+    }
+    
+    private void addTo(Map<SketchKey, HyperLogLog> target, SketchKey key, long hash) {
+        target.computeIfAbsent(key, k -> new HyperLogLog()).add(hash);
+    }
+    
+    /**
+     * Merges the sketch into its stored row, so writes for the same day from the live path, a backfill
+     * or a rerun of one never drop buyers another write added.
+     */
+    private void persist(SketchKey key, HyperLogLog sketch) {
+        try {
+            // Own transaction and connection: during backfill the current one is busy streaming
+            newTransaction.executeWithoutResult(tx -> store(key, sketch));
+        } catch (RuntimeException e) {
+            // Keep the sketch in memory and retry on the next flush; backfill sketches are not there yet
+            HyperLogLog kept = sketches.computeIfAbsent(key, k -> sketch);
+            if (kept != sketch) {
+                kept.merge(sketch);
+            }
+            dirty.add(key);
+            log.warn("Could not store buyer sketch {}: {}", key, e.getMessage());
+        }
+    }
+    
+    private void store(SketchKey key, HyperLogLog sketch) {
+        byte[] registers = sketch.toBytes();
+        if (buyerSketchRepository.insertIfAbsent(key.dimension().name(), key.dimKey(), key.day(), registers) > 0) {
+            return;
+        }
+        
+        BuyerSketch row = buyerSketchRepository.findForUpdate(key.dimension(), key.dimKey(), key.day())
+                .orElseThrow(() -> new IllegalStateException("Buyer sketch " + key + " vanished during merge"));
+        HyperLogLog merged = HyperLogLog.fromBytes(row.getRegisters());
+        merged.merge(sketch);
+        byte[] mergedRegisters = merged.toBytes();
+        if (!Arrays.equals(mergedRegisters, row.getRegisters())) {
+            row.setRegisters(mergedRegisters);
+            row.setUpdatedAt(LocalDateTime.now());
+        }
+    }
+    
+    private LocalDate memoryStart() {
+        return LocalDate.now().minusDays(memoryDays - 1L);
+    }
+    
+    // MurmurHash3 64-bit finalizer: spreads sequential user IDs over the whole hash space
+    private static long hash(long userId) {
+        long h = userId;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+    
+    private record SketchKey(Dimension dimension, Long dimKey, LocalDate day) {
+    }
+    
+    private static class BackfillState {
+        private final Map<SketchKey, HyperLogLog> sketches = new HashMap<>();
+        private LocalDate day;
+    }
+}
@@ -0,0 +1,339 @@
+package com.riki.bookstore.service;
+
+import com.riki.bookstore.dto.RegisterRequest;
+import com.riki.bookstore.dto.UserImportError;
+import com.riki.bookstore.dto.UserImportResponse;
+import com.riki.bookstore.entity.User;
+import com.riki.bookstore.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bulk import of customer accounts from CSV. The file is read line by line and handled in batches of
+ * {@code batch-size} rows: rows are validated like a registration, usernames and emails are checked
+ * against the file so far and against the database with one IN query each, passwords are hashed in
+ * parallel on a dedicated pool (separate from the login pool so an import cannot starve logins) and
+ * the batch is written with a single JDBC batch insert in its own transaction, so a failed batch leaves
+ * nothing behind and can be retried row by row.
+ */
+@Slf4j
+@Service
+public class UserImportService {
+
+    private static final List<String> COLUMNS = List.of("username", "password", "fullName", "email", "phone", "address");
+    private static final String INSERT_SQL = "INSERT INTO users (username, password, full_name, email, phone, address, " +
+            "role, enabled, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final Validator validator;
+    private final DailyStatsService dailyStatsService;
+    private final TransactionTemplate batchTransaction;
+    private final PasswordEncoder hashingEncoder;
+    private final ExecutorService hashPool;
+    private final int batchSize;
+    private final int maxReportedErrors;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public UserImportService(
+            UserRepository userRepository,
+            JdbcTemplate jdbcTemplate,
+            Validator validator,
+            DailyStatsService dailyStatsService,
+            PlatformTransactionManager transactionManager,
+            @Value("${auth.hashing.bcrypt-strength:10}") int bcryptStrength,
+            @Value("${users.import.threads:2}") int threads,
+            @Value("${users.import.batch-size:1000}") int batchSize,
+            @Value("${users.import.max-reported-errors:1000}") int maxReportedErrors
+    ) {
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.validator = validator;
+        this.dailyStatsService = dailyStatsService;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.hashingEncoder = new BCryptPasswordEncoder(bcryptStrength);
+        this.hashPool = Executors.newFixedThreadPool(threads, new CustomizableThreadFactory("user-import-hash-"));
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashPool.shutdownNow();
+    }
+
+    public UserImportResponse importCsv(InputStream input) {
+        if (!running.compareAndSet(false, true)) {
+            throw new RuntimeException("A user import is already running");
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            return importRows(reader);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read CSV file: " + e.getMessage());
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private UserImportResponse importRows(BufferedReader reader) throws IOException {
+        long startedAt = System.currentTimeMillis();
+
+        String header = reader.readLine();
+        if (header == null) {
+            throw new RuntimeException("CSV file is empty");
+        }
+        int[] columnIndexes = resolveColumns(parseLine(stripBom(header)));
+
+        Report report = new Report(maxReportedErrors);
+        // Lowercased, since the unique indexes use a case-insensitive collation
+        Set<String> seenUsernames = new HashSet<>();
+        Set<String> seenEmails = new HashSet<>();
+        List<Row> batch = new ArrayList<>(batchSize);
+
+        long lineNumber = 1;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            report.totalRows++;
+
+            List<String> fields = parseLine(line);
+            RegisterRequest request = new RegisterRequest();
+            request.setUsername(field(fields, columnIndexes[0]));
+            request.setPassword(field(fields, columnIndexes[1]));
+            request.setFullName(field(fields, columnIndexes[2]));
+            request.setEmail(field(fields, columnIndexes[3]));
+            request.setPhone(field(fields, columnIndexes[4]));
+            request.setAddress(field(fields, columnIndexes[5]));
+
+            Set<ConstraintViolation<RegisterRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                report.fail(lineNumber, request.getUsername(), violations.iterator().next().getMessage());
+                continue;
+            }
+            if (!seenUsernames.add(request.getUsername().toLowerCase(Locale.ROOT))) {
+                report.fail(lineNumber, request.getUsername(), "Duplicate username in file");
+                continue;
+            }
+            if (!seenEmails.add(request.getEmail().toLowerCase(Locale.ROOT))) {
+                report.fail(lineNumber, request.getUsername(), "Duplicate email in file");
+                continue;
+            }
+
+            batch.add(new Row(lineNumber, request));
+            if (batch.size() == batchSize) {
+                importBatch(batch, report);
+                batch.clear();
+            }
+        }
+        importBatch(batch, report);
+
+        long tookMillis = System.currentTimeMillis() - startedAt;
+        log.info("Imported {} of {} users in {} ms", report.imported, report.totalRows, tookMillis);
+        return new UserImportResponse(report.totalRows, report.imported, report.totalRows - report.imported,
+                tookMillis, report.errors, report.truncated);
+    }
+
+    private void importBatch(List<Row> batch, Report report) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<String> usernames = batch.stream().map(row -> row.request().getUsername()).toList();
+        List<String> emails = batch.stream().map(row -> row.request().getEmail()).toList();
+        Set<String> existingUsernames = lowercased(userRepository.findExistingUsernames(usernames));
+        Set<String> existingEmails = lowercased(userRepository.findExistingEmails(emails));
+
+        List<Row> accepted = new ArrayList<>(batch.size());
+        for (Row row : batch) {
+            RegisterRequest request = row.request();
+            if (existingUsernames.contains(request.getUsername().toLowerCase(Locale.ROOT))) {
+                report.fail(row.lineNumber(), request.getUsername(), "Username already exists");
+            } else if (existingEmails.contains(request.getEmail().toLowerCase(Locale.ROOT))) {
+                report.fail(row.lineNumber(), request.getUsername(), "Email already exists");
+            } else {
+                accepted.add(row);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        List<String> hashes = hashAll(accepted);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> params = new ArrayList<>(accepted.size());
+        for (int i = 0; i < accepted.size(); i++) {
+            params.add(toParams(accepted.get(i).request(), hashes.get(i), now));
+        }
+
+        int inserted;
+        try {
+            // Without a transaction the driver commits a rewritten batch in chunks, leaving part of it behind
+            batchTransaction.executeWithoutResult(tx -> jdbcTemplate.batchUpdate(INSERT_SQL, params));
+            inserted = accepted.size();
+        } catch (DataIntegrityViolationException e) {
+            // Someone registered one of these names since the check and the batch rolled back; retry row by
+            // row (each committing on its own) to find which
+            inserted = 0;
+            for (int i = 0; i < accepted.size(); i++) {
+                try {
+                    jdbcTemplate.update(INSERT_SQL, params.get(i));
+                    inserted++;
+                } catch (DataIntegrityViolationException rowError) {
+                    Row row = accepted.get(i);
+                    report.fail(row.lineNumber(), row.request().getUsername(), "Username or email already exists");
+                }
+            }
+        }
+
+        report.imported += inserted;
+        if (inserted > 0) {
+            dailyStatsService.recordNewUsers(now.toLocalDateTime(), inserted);
+        }
+    }
+
+    private List<String> hashAll(List<Row> rows) {
+        List<Callable<String>> tasks = rows.stream()
+                .<Callable<String>>map(row -> () -> hashingEncoder.encode(row.request().getPassword()))
+                .toList();
+        try {
+            List<String> hashes = new ArrayList<>(rows.size());
+            for (Future<String> future : hashPool.invokeAll(tasks)) {
+                hashes.add(future.get());
+            }
+            return hashes;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing passwords", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private Object[] toParams(RegisterRequest request, String passwordHash, Timestamp now) {
+        return new Object[]{
+                request.getUsername(), passwordHash, request.getFullName(), request.getEmail(),
+                request.getPhone(), request.getAddress(), User.Role.USER.name(), true, now, now
+        };
+    }
+
+    private int[] resolveColumns(List<String> header) {
+        Map<String, Integer> positions = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            positions.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+
+        int[] indexes = new int[COLUMNS.size()];
+        for (int i = 0; i < COLUMNS.size(); i++) {
+            Integer position = positions.get(COLUMNS.get(i).toLowerCase(Locale.ROOT));
+            if (position == null) {
+                throw new RuntimeException("CSV header must contain the columns " + String.join(", ", COLUMNS));
+            }
+            indexes[i] = position;
+        }
+        return indexes;
+    }
+
+    private static Set<String> lowercased(List<String> values) {
+        Set<String> result = new HashSet<>();
+        values.forEach(value -> result.add(value.toLowerCase(Locale.ROOT)));
+        return result;
+    }
+
+    private static String field(List<String> fields, int index) {
+        return index < fields.size() ? fields.get(index).trim() : null;
+    }
+
+    private static String stripBom(String line) {
+        return line.startsWith("\uFEFF") ? line.substring(1) : line;
+    }
+
+    /**
+     * Splits one CSV line; fields may be double-quoted, with "" as an escaped quote.
+     */
+    private static List<String> parseLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    private record Row(long lineNumber, RegisterRequest request) {
+    }
+
+    private static class Report {
+        private final int maxErrors;
+        private final List<UserImportError> errors = new ArrayList<>();
+        private long totalRows;
+        private long imported;
+        private boolean truncated;
+
+        Report(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        void fail(long lineNumber, String username, String message) {
+            if (errors.size() < maxErrors) {
+                errors.add(new UserImportError(lineNumber, username, message));
+            } else {
+                truncated = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.riki.bookstore.service;
+
+import com.riki.bookstore.dto.UserResponse;
+import com.riki.bookstore.dto.UserSearchResponse;
+import com.riki.bookstore.entity.User;
+import com.riki.bookstore.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Prefix search over one user field at a time. Each field is backed by an index and results are
+ * ordered by (field, id), so a page is a single index range scan and the next page starts where the
+ * last one ended instead of skipping an offset. Matching is case- and accent-insensitive through the
+ * column collation.
+ */
+@Service
+@RequiredArgsConstructor
+public class UserSearchService {
+    
+    public enum Field { USERNAME, EMAIL, PHONE, FULL_NAME }
+    
+    public static final int MAX_LIMIT = 100;
+    
+    private final UserRepository userRepository;
+    
+    public UserSearchResponse search(String query, Field field, String cursor, int limit) {
+        String term = query == null ? "" : query.trim();
+        if (term.isEmpty()) {
+            throw new RuntimeException("Search query is required");
+        }
+        Field searched = field != null ? field : guessField(term);
+        int pageSize = Math.max(1, Math.min(limit, MAX_LIMIT));
+        
+        String afterValue = null;
+        Long afterId = 0L;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = decodeCursor(cursor);
+            afterId = Long.valueOf(parts[0]);
+            afterValue = parts[1];
+        }
+        
+        // One extra row tells whether there is a next page
+        String prefix = escapeLike(term) + "%";
+        Pageable page = PageRequest.of(0, pageSize + 1);
+        List<User> users = switch (searched) {
+            case USERNAME -> userRepository.searchByUsername(prefix, afterValue, afterId, page);
+            case EMAIL -> userRepository.searchByEmail(prefix, afterValue, afterId, page);
+            case PHONE -> userRepository.searchByPhone(prefix, afterValue, afterId, page);
+            case FULL_NAME -> userRepository.searchByFullName(prefix, afterValue, afterId, page);
+        };
+        
+        String nextCursor = null;
+        if (users.size() > pageSize) {
+            users = users.subList(0, pageSize);
+            User last = users.get(pageSize - 1);
+            nextCursor = encodeCursor(last.getId(), valueOf(searched).apply(last));
+        }
+        
+        return new UserSearchResponse(searched.name(), users.stream().map(UserResponse::fromUser).toList(), nextCursor);
+    }
+    
+    // Used when the caller does not say which field to search
+    private Field guessField(String term) {
+        if (term.contains("@")) {
+            return Field.EMAIL;
+        }
+        if (term.matches("\\+?[0-9 .-]+")) {
+            return Field.PHONE;
+        }
+        return term.contains(" ") ? Field.FULL_NAME : Field.USERNAME;
+    }
+    
+    private Function<User, String> valueOf(Field field) {
+        return switch (field) {
+            case USERNAME -> User::getUsername;
+            case EMAIL -> User::getEmail;
+            case PHONE -> User::getPhone;
+            case FULL_NAME -> User::getFullName;
+        };
+    }
+    
+    private String escapeLike(String term) {
+        return term.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+    
+    private String encodeCursor(Long id, String value) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((id + ":" + value).getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private String[] decodeCursor(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = decoded.split(":", 2);
+            Long.parseLong(parts[0]);
+            if (parts.length < 2) {
+                throw new IllegalArgumentException();
+            }
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+}
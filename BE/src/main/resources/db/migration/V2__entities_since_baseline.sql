@@ -0,0 +1,113 @@
+-- Columns, tables and indexes that ddl-auto added after bookstore.sql was dumped.
+-- Databases found without a schema_version table are baselined at V1, so this script also runs on ones
+-- that ddl-auto already brought partly or fully up to date: every statement skips objects that exist.
+-- MySQL has no IF NOT EXISTS for columns and indexes, hence the information_schema checks.
+
+SET @ddl = (SELECT IF(COUNT(*) = 0, 'ALTER TABLE `books` ADD COLUMN `flash_sale` bit(1) NOT NULL DEFAULT b''0''', 'DO 0')
+            FROM information_schema.columns WHERE table_schema = DATABASE() AND table_name = 'books' AND column_name = 'flash_sale');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0, 'CREATE INDEX `idx_books_stock` ON `books` (`stock_quantity`, `id`)', 'DO 0')
+            FROM information_schema.statistics WHERE table_schema = DATABASE() AND table_name = 'books' AND index_name = 'idx_books_stock');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0, 'CREATE INDEX `idx_users_phone` ON `users` (`phone`, `id`)', 'DO 0')
+            FROM information_schema.statistics WHERE table_schema = DATABASE() AND table_name = 'users' AND index_name = 'idx_users_phone');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0, 'CREATE INDEX `idx_users_full_name` ON `users` (`full_name`, `id`)', 'DO 0')
+            FROM information_schema.statistics WHERE table_schema = DATABASE() AND table_name = 'users' AND index_name = 'idx_users_full_name');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+
+CREATE TABLE IF NOT EXISTS `orders_archive` (
+  `id` bigint NOT NULL,
+  `archived_at` datetime(6) NOT NULL,
+  `created_at` datetime(6) NOT NULL,
+  `notes` varchar(255) DEFAULT NULL,
+  `order_number` varchar(255) NOT NULL,
+  `recipient_address` varchar(255) NOT NULL,
+  `recipient_name` varchar(255) NOT NULL,
+  `recipient_phone` varchar(255) NOT NULL,
+  `status` enum('PENDING','PROCESSING','COMPLETED','CANCELLED') NOT NULL,
+  `total_amount` decimal(10,2) NOT NULL,
+  `updated_at` datetime(6) NOT NULL,
+  `user_id` bigint NOT NULL,
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_orders_archive_order_number` (`order_number`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+CREATE TABLE IF NOT EXISTS `order_items_archive` (
+  `id` bigint NOT NULL,
+  `book_id` bigint NOT NULL,
+  `created_at` datetime(6) NOT NULL,
+  `order_id` bigint NOT NULL,
+  `price` decimal(10,2) NOT NULL,
+  `quantity` int NOT NULL,
+  `updated_at` datetime(6) NOT NULL,
+  PRIMARY KEY (`id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+CREATE TABLE IF NOT EXISTS `daily_stats` (
+  `stat_date` date NOT NULL,
+  `new_books` bigint NOT NULL,
+  `new_users` bigint NOT NULL,
+  `order_count` bigint NOT NULL,
+  `revenue` decimal(14,2) NOT NULL,
+  `updated_at` datetime(6) NOT NULL,
+  PRIMARY KEY (`stat_date`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+CREATE TABLE IF NOT EXISTS `buyer_sketches` (
+  `id` bigint NOT NULL AUTO_INCREMENT,
+  `dimension` enum('STORE','BOOK','CATEGORY') NOT NULL,
+  `dim_key` bigint NOT NULL,
+  `stat_date` date NOT NULL,
+  `registers` blob NOT NULL,
+  `updated_at` datetime(6) NOT NULL,
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_buyer_sketches_dim_day` (`dimension`, `dim_key`, `stat_date`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+CREATE TABLE IF NOT EXISTS `reorder_suggestions` (
+  `id` bigint NOT NULL AUTO_INCREMENT,
+  `book_id` bigint NOT NULL,
+  `computed_at` datetime(6) NOT NULL,
+  `daily_velocity` double NOT NULL,
+  `days_of_stock_left` double NOT NULL,
+  `stock_quantity` int NOT NULL,
+  `suggested_quantity` int NOT NULL,
+  `units_sold` bigint NOT NULL,
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_reorder_suggestions_book` (`book_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+CREATE TABLE IF NOT EXISTS `refresh_tokens` (
+  `id` bigint NOT NULL AUTO_INCREMENT,
+  `created_at` datetime(6) NOT NULL,
+  `expires_at` datetime(6) NOT NULL,
+  `family_id` varchar(36) NOT NULL,
+  `revoked_at` datetime(6) DEFAULT NULL,
+  `token_hash` varchar(64) NOT NULL,
+  `user_id` bigint NOT NULL,
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_refresh_tokens_hash` (`token_hash`),
+  KEY `idx_refresh_tokens_user` (`user_id`),
+  KEY `idx_refresh_tokens_family` (`family_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+CREATE TABLE IF NOT EXISTS `revoked_tokens` (
+  `id` bigint NOT NULL AUTO_INCREMENT,
+  `expires_at` datetime(6) NOT NULL,
+  `jti` varchar(36) NOT NULL,
+  `revoked_at` datetime(6) NOT NULL,
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_revoked_tokens_jti` (`jti`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
@@ -0,0 +1,13 @@
+-- Composite indexes for the hot query shapes; books(stock_quantity) is already covered by idx_books_stock
+
+-- Order history per customer, newest first
+CREATE INDEX `idx_orders_user_created` ON `orders` (`user_id`, `created_at`);
+
+-- Admin order list and archival by status and age
+CREATE INDEX `idx_orders_status_created` ON `orders` (`status`, `created_at`);
+
+-- Category pages sorted by newest
+CREATE INDEX `idx_books_category_created` ON `books` (`category_id`, `created_at`);
+
+-- A customer's live cart, and the (user, book) lookup when adding to it
+CREATE INDEX `idx_cart_items_user_deleted_book` ON `cart_items` (`user_id`, `is_deleted`, `book_id`);
@@ -0,0 +1,2 @@
+-- Archived orders are read with the same (user_id, created_at, id) keyset as the hot table for order history
+CREATE INDEX `idx_orders_archive_user_created` ON `orders_archive` (`user_id`, `created_at`);
@@ -0,0 +1,2 @@
+-- Revocation sync polls revoked_tokens by revoked_at every few seconds
+CREATE INDEX `idx_revoked_tokens_revoked_at` ON `revoked_tokens` (`revoked_at`);
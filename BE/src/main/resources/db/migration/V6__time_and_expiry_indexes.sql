@@ -0,0 +1,13 @@
+-- Indexes for the query shapes the repository plan check found scanning whole tables
+
+-- Dashboard windows, recent orders, daily stats backfill and the sales time series rebuild, all by created_at
+CREATE INDEX `idx_orders_created` ON `orders` (`created_at`);
+CREATE INDEX `idx_orders_archive_created` ON `orders_archive` (`created_at`);
+CREATE INDEX `idx_users_created` ON `users` (`created_at`);
+
+-- Expiry purges; without these each DELETE scans and locks every token row
+CREATE INDEX `idx_refresh_tokens_expires` ON `refresh_tokens` (`expires_at`);
+CREATE INDEX `idx_revoked_tokens_expires` ON `revoked_tokens` (`expires_at`);
+
+-- Reorder suggestions page, most urgent first
+CREATE INDEX `idx_reorder_suggestions_days_left` ON `reorder_suggestions` (`days_of_stock_left`, `book_id`);
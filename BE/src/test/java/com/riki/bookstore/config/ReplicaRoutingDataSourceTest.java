@@ -0,0 +1,207 @@
+package com.riki.bookstore.config;
+
+import com.riki.bookstore.entity.User;
+import com.riki.bookstore.security.AuthenticatedUser;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.persistenceunit.PersistenceManagedTypes;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two in-memory databases standing in for the primary and the replica; each has a one-row
+ * {@code db_name} table so a query shows which one a transaction was routed to.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private DataSource primary;
+    private DataSource replica;
+    private ReplicaLagMonitor lagMonitor;
+    private ReadYourWritesTracker writesTracker;
+    private LocalContainerEntityManagerFactoryBean factoryBean;
+    private EntityManagerFactory entityManagerFactory;
+    private EntityManager entityManager;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+        lagMonitor = new ReplicaLagMonitor(replica, 2, false);
+        lagMonitor.check();
+        writesTracker = new ReadYourWritesTracker(60_000);
+        build(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        factoryBean.destroy();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToReplicaAndWritesToPrimary() {
+        assertThat(readOnlyDatabase()).isEqualTo("replica");
+        assertThat(readWriteDatabase()).isEqualTo("primary");
+    }
+
+    @Test
+    void readsStayOnPrimaryWhileReplicaIsUnusable() {
+        lagMonitor = new ReplicaLagMonitor(replica, 2, false); // never checked, so not usable yet
+        build(true);
+
+        assertThat(readOnlyDatabase()).isEqualTo("primary");
+    }
+
+    @Test
+    void userWhoJustWroteReadsFromPrimary() {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                new AuthenticatedUser(7L, "alice", User.Role.USER), null, null));
+        assertThat(readOnlyDatabase()).isEqualTo("replica");
+
+        readWrite.executeWithoutResult(status -> entityManager.persist(new RoutingNote("written")));
+
+        assertThat(readOnlyDatabase()).isEqualTo("primary");
+        assertThat(writesTracker.isSticky(7L)).isTrue();
+    }
+
+    @Test
+    void writeAfterReadOnlyLookupInOpenSessionGoesToPrimary() {
+        String[] seen = inOpenSession(() -> new String[]{
+                readOnlyDatabase(),
+                readWrite.execute(status -> {
+                    entityManager.persist(new RoutingNote("after lookup"));
+                    return currentDatabase();
+                })
+        });
+
+        assertThat(seen).containsExactly("replica", "primary");
+        assertThat(noteCount(primary)).isEqualTo(1);
+        assertThat(noteCount(replica)).isZero();
+    }
+
+    @Test
+    void sessionHoldingItsConnectionWritesToReplica() {
+        // Hibernate's default under Spring: what the application did before routingConnectionHandling
+        build(false);
+
+        String[] seen = inOpenSession(() -> new String[]{
+                readOnlyDatabase(),
+                readWriteDatabase()
+        });
+
+        assertThat(seen).containsExactly("replica", "replica");
+    }
+
+    private void build(boolean releaseAfterTransaction) {
+        if (factoryBean != null) {
+            factoryBean.destroy();
+        }
+        DataSource routing = new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(primary, replica, lagMonitor, writesTracker));
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("hibernate.hbm2ddl.auto", "none");
+        if (releaseAfterTransaction) {
+            new DataSourceConfig().routingConnectionHandling().customize(properties);
+        }
+
+        factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(routing);
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.setManagedTypes(PersistenceManagedTypes.of(RoutingNote.class.getName()));
+        factoryBean.setJpaPropertyMap(properties);
+        factoryBean.afterPropertiesSet();
+        entityManagerFactory = factoryBean.getObject();
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+
+        JpaTransactionManager transactionManager = new JpaTransactionManager(entityManagerFactory);
+        transactionManager.setDataSource(routing);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+    }
+
+    // What OpenEntityManagerInViewInterceptor does around a request
+    private <T> T inOpenSession(Supplier<T> request) {
+        EntityManager requestEntityManager = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(requestEntityManager));
+        try {
+            return request.get();
+        } finally {
+            TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+            requestEntityManager.close();
+        }
+    }
+
+    private String readOnlyDatabase() {
+        return readOnly.execute(status -> currentDatabase());
+    }
+
+    private String readWriteDatabase() {
+        return readWrite.execute(status -> currentDatabase());
+    }
+
+    private String currentDatabase() {
+        return (String) entityManager.createNativeQuery("SELECT name FROM db_name").getSingleResult();
+    }
+
+    private static int noteCount(DataSource dataSource) {
+        return new JdbcTemplate(dataSource).queryForObject("SELECT COUNT(*) FROM routing_note", Integer.class);
+    }
+
+    private static DataSource database(String name) {
+        DataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE db_name (name VARCHAR(16) NOT NULL)");
+        jdbc.update("INSERT INTO db_name VALUES (?)", name);
+        jdbc.execute("CREATE TABLE routing_note (id BIGINT AUTO_INCREMENT PRIMARY KEY, text VARCHAR(100) NOT NULL)");
+        return dataSource;
+    }
+
+    @Entity
+    @Table(name = "routing_note")
+    public static class RoutingNote {
+
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        private Long id;
+
+        private String text;
+
+        protected RoutingNote() {
+        }
+
+        RoutingNote(String text) {
+            this.text = text;
+        }
+    }
+}
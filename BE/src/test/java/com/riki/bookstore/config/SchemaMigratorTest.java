@@ -0,0 +1,131 @@
+package com.riki.bookstore.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the real migrations against MySQL: from scratch, on a database still at the original dump, and on
+ * one ddl-auto already brought up to date. Whether queries can use the indexes is checked per repository
+ * method by {@code RepositoryQueryPlanTest}. Needs Docker; skipped without it.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class SchemaMigratorTest {
+
+    private static final String LOCATIONS = "classpath:db/migration/V*__*.sql";
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+
+    @Container
+    private static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0")
+            .withUsername("root")
+            .withPassword("test");
+
+    private DataSource dataSource;
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void createDatabase() {
+        String name = "migration_" + DATABASES.incrementAndGet();
+        new JdbcTemplate(dataSource("test")).execute("CREATE DATABASE " + name);
+        dataSource = dataSource(name);
+        jdbc = new JdbcTemplate(dataSource);
+    }
+
+    @Test
+    void migratesEmptyDatabaseToLatest() {
+        new SchemaMigrator(dataSource, LOCATIONS, 1).migrate();
+
+        assertThat(appliedVersions()).containsExactly(1, 2, 3, 4, 5, 6);
+        assertSinceBaselineObjectsExist();
+    }
+
+    @Test
+    void runsSinceBaselineScriptOnDatabaseAtOriginalDump() {
+        runScript("db/migration/V1__baseline.sql");
+
+        new SchemaMigrator(dataSource, LOCATIONS, 1).migrate();
+
+        assertThat(descriptions().get(1)).startsWith("<< baseline >>");
+        assertThat(descriptions().get(2)).doesNotStartWith("<< baseline >>");
+        assertSinceBaselineObjectsExist();
+    }
+
+    @Test
+    void skipsObjectsDdlAutoAlreadyCreated() {
+        runScript("db/migration/V1__baseline.sql");
+        runScript("db/migration/V2__entities_since_baseline.sql");
+
+        new SchemaMigrator(dataSource, LOCATIONS, 1).migrate();
+
+        assertThat(appliedVersions()).containsExactly(1, 2, 3, 4, 5, 6);
+        assertSinceBaselineObjectsExist();
+    }
+
+    @Test
+    void secondRunChangesNothing() {
+        new SchemaMigrator(dataSource, LOCATIONS, 1).migrate();
+        List<Map<String, Object>> before = jdbc.queryForList("SELECT version, checksum FROM schema_version ORDER BY version");
+
+        new SchemaMigrator(dataSource, LOCATIONS, 1).migrate();
+
+        assertThat(jdbc.queryForList("SELECT version, checksum FROM schema_version ORDER BY version")).isEqualTo(before);
+    }
+
+    private void assertSinceBaselineObjectsExist() {
+        assertThat(count("SELECT COUNT(*) FROM information_schema.columns WHERE table_schema = DATABASE() " +
+                "AND table_name = 'books' AND column_name = 'flash_sale'")).isEqualTo(1);
+        for (String table : List.of("orders_archive", "order_items_archive", "daily_stats", "buyer_sketches",
+                "reorder_suggestions", "refresh_tokens", "revoked_tokens")) {
+            assertThat(count("SELECT COUNT(*) FROM information_schema.tables WHERE table_schema = DATABASE() " +
+                    "AND table_name = '" + table + "'")).as(table).isEqualTo(1);
+        }
+        for (String index : List.of("idx_books_stock", "idx_users_phone", "idx_users_full_name")) {
+            assertThat(count("SELECT COUNT(DISTINCT index_name) FROM information_schema.statistics " +
+                    "WHERE table_schema = DATABASE() AND index_name = '" + index + "'")).as(index).isEqualTo(1);
+        }
+    }
+
+    private List<Integer> appliedVersions() {
+        return jdbc.queryForList("SELECT version FROM schema_version ORDER BY version", Integer.class);
+    }
+
+    private Map<Integer, String> descriptions() {
+        Map<Integer, String> descriptions = new HashMap<>();
+        jdbc.query("SELECT version, description FROM schema_version",
+                rs -> { descriptions.put(rs.getInt(1), rs.getString(2)); });
+        return descriptions;
+    }
+
+    private int count(String sql) {
+        return jdbc.queryForObject(sql, Integer.class);
+    }
+
+    private void runScript(String path) {
+        try (Connection connection = dataSource.getConnection()) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource(path));
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static DataSource dataSource(String database) {
+        return new DriverManagerDataSource("jdbc:mysql://" + MYSQL.getHost() + ":" + MYSQL.getMappedPort(3306) + "/"
+                + database + "?useSSL=false&allowPublicKeyRetrieval=true", MYSQL.getUsername(), MYSQL.getPassword());
+    }
+}
@@ -0,0 +1,397 @@
+package com.riki.bookstore.repository;
+
+import com.riki.bookstore.config.SchemaMigrator;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Named;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.type.filter.AssignableTypeFilter;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs every {@code @Query} repository method against a migrated, seeded MySQL with sample arguments,
+ * captures the SQL Hibernate sends, and EXPLAINs each statement with the same parameters. A query fails
+ * when MySQL plans a full table scan or reads a table without choosing an index, unless it is one of the
+ * intentional scans in {@link #FULL_SCANS}. Needs Docker; skipped without it.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(RepositoryQueryPlanTest.StatementRecorder.class)
+class RepositoryQueryPlanTest {
+
+    // Rows per table: enough that an index beats a scan whenever one applies
+    private static final int ROWS = 5000;
+
+    // Sample times on either side of the seeded data, so comparisons select (almost) nothing
+    private static final LocalDateTime PAST = LocalDateTime.of(2019, 1, 1, 0, 0);
+    private static final LocalDateTime FUTURE = LocalDateTime.of(2100, 1, 1, 0, 0);
+
+    // Queries that read a whole table on purpose: bulk loads and backfills, totals and counts over every
+    // row, the flash sale reload, and free-text search
+    private static final Set<String> FULL_SCANS = Set.of(
+            "ArchivedOrderItemRepository.streamSalesFacts",
+            "ArchivedOrderItemRepository.streamBuyerFacts",
+            "ArchivedOrderRepository.calculateTotalRevenue",
+            "BookRepository.findAllStock",
+            "BookRepository.findFlashSaleStock",
+            "BookRepository.calculateTotalInventoryValue",
+            "BookRepository.findByTitleContainingIgnoreCaseOrAuthorContainingIgnoreCase",
+            "BookRepository.findByCategoryAndKeyword",
+            "BookRepository.findFeaturedBooks",
+            "OrderItemRepository.streamSalesFacts",
+            "OrderItemRepository.streamBuyerFacts",
+            "OrderRepository.calculateTotalRevenue",
+            "UserRepository.countGroupedByRoleAndEnabled"
+    );
+
+    @Container
+    private static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0")
+            .withUsername("root")
+            .withPassword("test");
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private StatementRecorder recorder;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", RepositoryQueryPlanTest::url);
+        registry.add("spring.datasource.username", MYSQL::getUsername);
+        registry.add("spring.datasource.password", MYSQL::getPassword);
+    }
+
+    @BeforeAll
+    static void migrateAndSeed() throws SQLException {
+        try (Connection connection = connect()) {
+            SingleConnectionDataSource dataSource = new SingleConnectionDataSource(connection, true);
+            new SchemaMigrator(dataSource, "classpath:db/migration/V*__*.sql", 1).migrate();
+            seed(new JdbcTemplate(dataSource));
+        }
+    }
+
+    static Stream<Named<Method>> queryMethods() {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false) {
+            @Override
+            protected boolean isCandidateComponent(AnnotatedBeanDefinition definition) {
+                return definition.getMetadata().isInterface();
+            }
+        };
+        scanner.addIncludeFilter(new AssignableTypeFilter(Repository.class));
+
+        return scanner.findCandidateComponents(RepositoryQueryPlanTest.class.getPackageName()).stream()
+                .map(BeanDefinition::getBeanClassName)
+                .map(RepositoryQueryPlanTest::load)
+                .flatMap(repository -> Arrays.stream(repository.getDeclaredMethods()))
+                .filter(method -> method.isAnnotationPresent(Query.class))
+                .sorted(Comparator.comparing(RepositoryQueryPlanTest::name))
+                .map(method -> Named.of(name(method), method));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("queryMethods")
+    void queryUsesAnIndex(Method method) throws Exception {
+        List<Statement> statements = run(method);
+        assertThat(statements).as("SQL sent by %s", name(method)).isNotEmpty();
+        if (FULL_SCANS.contains(name(method))) {
+            return;
+        }
+
+        List<String> scans = new ArrayList<>();
+        try (Connection connection = connect()) {
+            for (Statement statement : statements) {
+                for (Map<String, Object> row : explain(connection, statement)) {
+                    String table = (String) row.get("table");
+                    if (table == null || table.startsWith("<") || "INSERT".equals(row.get("select_type"))) {
+                        continue; // no table read, a derived/union result, or the target of an INSERT
+                    }
+                    if ("ALL".equals(row.get("type")) || row.get("key") == null) {
+                        scans.add(table + " " + row + " in: " + statement.sql());
+                    }
+                }
+            }
+        }
+        assertThat(scans).as("tables %s reads without an index", name(method)).isEmpty();
+    }
+
+    private List<Statement> run(Method method) throws Exception {
+        Object repository = context.getBean(method.getDeclaringClass());
+        Object[] args = Arrays.stream(method.getParameters()).map(RepositoryQueryPlanTest::sample).toArray();
+
+        recorder.statements.clear();
+        try {
+            Object result = method.invoke(repository, args);
+            if (result instanceof Stream<?> stream) {
+                try (stream) {
+                    stream.findFirst(); // streamed queries only execute once read
+                }
+            }
+        } catch (InvocationTargetException e) {
+            // Sample rows may collide with seeded ones; the statement was still sent
+            if (!(e.getCause() instanceof DataIntegrityViolationException)) {
+                throw e;
+            }
+        }
+        return List.copyOf(recorder.statements);
+    }
+
+    private static List<Map<String, Object>> explain(Connection connection, Statement statement) throws Exception {
+        try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + statement.sql())) {
+            for (Call call : statement.parameters().values()) {
+                call.setter().invoke(explain, call.args());
+            }
+            List<Map<String, Object>> rows = new ArrayList<>();
+            try (ResultSet rs = explain.executeQuery()) {
+                while (rs.next()) {
+                    Map<String, Object> row = new TreeMap<>();
+                    for (int i = 1; i <= rs.getMetaData().getColumnCount(); i++) {
+                        row.put(rs.getMetaData().getColumnLabel(i), rs.getObject(i));
+                    }
+                    rows.add(row);
+                }
+            }
+            return rows;
+        }
+    }
+
+    private static Object sample(Parameter parameter) {
+        Param param = parameter.getAnnotation(Param.class);
+        String name = param != null ? param.value() : parameter.getName();
+        Class<?> type = parameter.getType();
+
+        if (name.startsWith("after") && !type.isPrimitive()) {
+            return null; // keyset cursors: the first page
+        }
+        if (Collection.class.isAssignableFrom(type)) {
+            Type element = ((ParameterizedType) parameter.getParameterizedType()).getActualTypeArguments()[0];
+            Class<?> elementType = (Class<?>) (element instanceof ParameterizedType p ? p.getRawType() : element);
+            return List.of(sample(elementType, name, 1), sample(elementType, name, 2));
+        }
+        return sample(type, name, 1);
+    }
+
+    private static Object sample(Class<?> type, String name, int n) {
+        if (type == Long.class || type == long.class) {
+            return (long) n;
+        }
+        if (type == Integer.class || type == int.class) {
+            return n;
+        }
+        if (type == Boolean.class || type == boolean.class) {
+            return true;
+        }
+        if (type == BigDecimal.class) {
+            return BigDecimal.valueOf(n);
+        }
+        if (type == byte[].class) {
+            return new byte[16];
+        }
+        if (type == String.class) {
+            return switch (name) {
+                case "prefix" -> "a%";
+                case "dimension" -> "STORE";
+                default -> "a" + n;
+            };
+        }
+        if (type == LocalDateTime.class) {
+            return isUpperBound(name) ? PAST : FUTURE;
+        }
+        if (type == LocalDate.class) {
+            return (isUpperBound(name) ? PAST : FUTURE).toLocalDate();
+        }
+        if (type.isEnum()) {
+            return type.getEnumConstants()[n - 1];
+        }
+        if (type == Pageable.class) {
+            return PageRequest.of(0, 20);
+        }
+        throw new IllegalArgumentException("No sample value for " + type.getName() + " " + name);
+    }
+
+    private static boolean isUpperBound(String name) {
+        return name.equals("to") || name.equals("before") || name.equals("cutoff");
+    }
+
+    /**
+     * Fills every table with {@link #ROWS} rows: the n-th row has n in every numeric and key column, so
+     * foreign keys line up, distinct strings, enum values in turn, and times in the 2020s.
+     */
+    private static void seed(JdbcTemplate jdbc) {
+        jdbc.execute("SET FOREIGN_KEY_CHECKS = 0");
+        jdbc.execute("CREATE TEMPORARY TABLE seq (n INT PRIMARY KEY)");
+        jdbc.update("INSERT INTO seq SELECT a.d + 10 * b.d + 100 * c.d + 1000 * e.d + 1 FROM " + digits("a") + ", "
+                + digits("b") + ", " + digits("c") + ", " + digits("e") + " WHERE a.d + 10 * b.d + 100 * c.d + 1000 * e.d < ?", ROWS);
+
+        List<String> tables = jdbc.queryForList("SELECT table_name FROM information_schema.tables " +
+                "WHERE table_schema = DATABASE() AND table_type = 'BASE TABLE' AND table_name <> 'schema_version'", String.class);
+        for (String table : tables) {
+            List<String> columns = new ArrayList<>();
+            List<String> values = new ArrayList<>();
+            jdbc.query("SELECT column_name, data_type, column_type, character_maximum_length FROM information_schema.columns " +
+                    "WHERE table_schema = DATABASE() AND table_name = ? AND extra NOT LIKE '%GENERATED%' ORDER BY ordinal_position",
+                    rs -> {
+                        columns.add("`" + rs.getString(1) + "`");
+                        values.add(seedValue(rs.getString(2), rs.getString(3), rs.getLong(4)));
+                    }, table);
+            jdbc.execute("INSERT INTO `" + table + "` (" + String.join(", ", columns) + ") SELECT "
+                    + String.join(", ", values) + " FROM seq");
+            jdbc.execute("ANALYZE TABLE `" + table + "`");
+        }
+        jdbc.execute("SET FOREIGN_KEY_CHECKS = 1");
+    }
+
+    private static String seedValue(String dataType, String columnType, long maxLength) {
+        return switch (dataType.toLowerCase()) {
+            case "enum" -> {
+                String values = columnType.substring(columnType.indexOf('(') + 1, columnType.lastIndexOf(')'));
+                yield "ELT(1 + n % " + values.split(",").length + ", " + values + ")";
+            }
+            case "bit", "tinyint" -> columnType.contains("(1)") ? "n % 2" : "n % 100";
+            case "date" -> "DATE_ADD('2020-01-01', INTERVAL n DAY)";
+            case "datetime", "timestamp" -> "DATE_ADD('2020-01-01', INTERVAL n MINUTE)";
+            case "blob", "tinyblob", "mediumblob", "longblob", "binary", "varbinary" -> "UNHEX('00')";
+            case "varchar", "char" -> "LEFT(CONCAT('v', n), " + maxLength + ")";
+            case "text", "tinytext", "mediumtext", "longtext" -> "CONCAT('v', n)";
+            default -> "n";
+        };
+    }
+
+    private static String digits(String alias) {
+        return "(SELECT 0 d UNION ALL SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3 UNION ALL SELECT 4 " +
+                "UNION ALL SELECT 5 UNION ALL SELECT 6 UNION ALL SELECT 7 UNION ALL SELECT 8 UNION ALL SELECT 9) " + alias;
+    }
+
+    private static String name(Method method) {
+        return method.getDeclaringClass().getSimpleName() + "." + method.getName();
+    }
+
+    private static Class<?> load(String className) {
+        try {
+            return Class.forName(className);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String url() {
+        return MYSQL.getJdbcUrl() + "?useSSL=false&allowPublicKeyRetrieval=true";
+    }
+
+    private static Connection connect() throws SQLException {
+        return DriverManager.getConnection(url(), MYSQL.getUsername(), MYSQL.getPassword());
+    }
+
+    private record Call(Method setter, Object[] args) {
+    }
+
+    private record Statement(String sql, Map<Integer, Call> parameters) {
+    }
+
+    /**
+     * Wraps the application's DataSource and records every prepared statement it executes, with the
+     * setter calls that bound its parameters, so they can be replayed under EXPLAIN.
+     */
+    static class StatementRecorder implements BeanPostProcessor {
+
+        final List<Statement> statements = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            return bean instanceof DataSource dataSource ? proxy(DataSource.class, dataSource, this::onDataSource) : bean;
+        }
+
+        private Object onDataSource(Object target, Method method, Object[] args) throws Throwable {
+            Object result = invoke(target, method, args);
+            return result instanceof Connection connection ? proxy(Connection.class, connection, this::onConnection) : result;
+        }
+
+        private Object onConnection(Object target, Method method, Object[] args) throws Throwable {
+            Object result = invoke(target, method, args);
+            if (method.getName().equals("prepareStatement")) {
+                String sql = (String) args[0];
+                Map<Integer, Call> parameters = new TreeMap<>();
+                return proxy(PreparedStatement.class, (PreparedStatement) result, (statement, call, callArgs) -> {
+                    if (call.getName().startsWith("set") && callArgs != null && callArgs.length > 1
+                            && callArgs[0] instanceof Integer index) {
+                        parameters.put(index, new Call(call, callArgs.clone()));
+                    } else if (call.getName().startsWith("execute")) {
+                        statements.add(new Statement(sql, new TreeMap<>(parameters)));
+                    }
+                    return invoke(statement, call, callArgs);
+                });
+            }
+            return result;
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> type, T target, Handler handler) {
+            InvocationHandler invocation = (proxy, method, args) -> handler.handle(target, method, args);
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, invocation);
+        }
+
+        @FunctionalInterface
+        private interface Handler {
+            Object handle(Object target, Method method, Object[] args) throws Throwable;
+        }
+    }
+}
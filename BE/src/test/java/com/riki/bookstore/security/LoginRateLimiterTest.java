@@ -0,0 +1,42 @@
+package com.riki.bookstore.security;
+
+import com.riki.bookstore.exception.TooManyRequestsException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoginRateLimiterTest {
+
+    // Large IP allowance, 3 attempts per username, no meaningful refill during the test
+    private final LoginRateLimiter limiter = new LoginRateLimiter(1000, 1, 3, 1);
+
+    @Test
+    void successfulLoginsDoNotUseUpTheUsernameBucket() {
+        for (int i = 0; i < 10; i++) {
+            assertThatCode(() -> limiter.checkLoginAttempt("10.0.0.1", "alice")).doesNotThrowAnyException();
+        }
+    }
+
+    @Test
+    void failedLoginsLockTheUsername() {
+        for (int i = 0; i < 3; i++) {
+            limiter.checkLoginAttempt("10.0.0.1", "alice");
+            limiter.recordFailedLogin("alice");
+        }
+
+        assertThatThrownBy(() -> limiter.checkLoginAttempt("10.0.0.2", "Alice"))
+                .isInstanceOf(TooManyRequestsException.class);
+        assertThatCode(() -> limiter.checkLoginAttempt("10.0.0.2", "bob")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void everyAttemptIsChargedToTheIp() {
+        LoginRateLimiter strictIp = new LoginRateLimiter(2, 1, 100, 1);
+        strictIp.checkLoginAttempt("10.0.0.1", "alice");
+        strictIp.checkLoginAttempt("10.0.0.1", "bob");
+
+        assertThatThrownBy(() -> strictIp.checkLoginAttempt("10.0.0.1", "carol"))
+                .isInstanceOf(TooManyRequestsException.class);
+    }
+}
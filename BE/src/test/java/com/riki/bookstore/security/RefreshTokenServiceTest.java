@@ -0,0 +1,89 @@
+package com.riki.bookstore.security;
+
+import com.riki.bookstore.entity.RefreshToken;
+import com.riki.bookstore.repository.RefreshTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RefreshTokenServiceTest {
+
+    private static final String SECRET = "rikiBookstoreSecretKey2024ForJWTTokenGeneration";
+
+    // In-memory table keyed by token hash
+    private final Map<String, RefreshToken> tokens = new HashMap<>();
+    private final RefreshTokenRepository repository = mock(RefreshTokenRepository.class);
+    private final RefreshTokenService service = new RefreshTokenService(repository, SECRET, 60_000, 10_000);
+
+    @BeforeEach
+    void inMemoryRepository() {
+        when(repository.save(any())).thenAnswer(call -> {
+            RefreshToken token = call.getArgument(0);
+            tokens.put(token.getTokenHash(), token);
+            return token;
+        });
+        when(repository.findByTokenHashForUpdate(anyString()))
+                .thenAnswer(call -> Optional.ofNullable(tokens.get(call.<String>getArgument(0))));
+        when(repository.findByTokenHash(anyString()))
+                .thenAnswer(call -> Optional.ofNullable(tokens.get(call.<String>getArgument(0))));
+        when(repository.revokeFamily(anyString(), any())).thenAnswer(call -> {
+            String familyId = call.getArgument(0);
+            tokens.values().stream()
+                    .filter(t -> t.getFamilyId().equals(familyId) && t.getRevokedAt() == null)
+                    .forEach(t -> t.setRevokedAt(call.getArgument(1)));
+            return 0;
+        });
+    }
+
+    @Test
+    void tabsRefreshingTheSameTokenGetTheSameSuccessor() {
+        String shared = service.issue(1L);
+
+        String first = service.rotate(shared).refreshToken();
+        String second = service.rotate(shared).refreshToken();
+
+        assertThat(second).isEqualTo(first);
+        assertThat(service.rotate(second).refreshToken()).isNotEqualTo(first);
+    }
+
+    @Test
+    void lateTabFollowsTheChainToTheLiveToken() {
+        String shared = service.issue(1L);
+        String first = service.rotate(shared).refreshToken();
+        String next = service.rotate(first).refreshToken();
+
+        assertThat(service.rotate(shared).refreshToken()).isEqualTo(next);
+    }
+
+    @Test
+    void reuseAfterTheGraceWindowRevokesTheFamily() {
+        String stolen = service.issue(1L);
+        String successor = service.rotate(stolen).refreshToken();
+        tokens.values().stream()
+                .filter(t -> t.getRevokedAt() != null)
+                .forEach(t -> t.setRevokedAt(LocalDateTime.now().minusMinutes(1)));
+
+        assertThatThrownBy(() -> service.rotate(stolen)).hasMessage("Invalid refresh token");
+        assertThatThrownBy(() -> service.rotate(successor)).hasMessage("Invalid refresh token");
+    }
+
+    @Test
+    void loggedOutFamilyIsNotRevivedWithinTheGraceWindow() {
+        String shared = service.issue(1L);
+        String successor = service.rotate(shared).refreshToken();
+        service.revoke(successor);
+
+        assertThatThrownBy(() -> service.rotate(shared)).hasMessage("Invalid refresh token");
+    }
+}
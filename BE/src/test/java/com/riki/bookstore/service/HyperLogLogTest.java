@@ -0,0 +1,142 @@
+package com.riki.bookstore.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class HyperLogLogTest {
+
+    private static final byte FORMAT_SPARSE = 0;
+    private static final byte FORMAT_DENSE = 1;
+
+    @Test
+    void emptySketchEstimatesZero() {
+        assertThat(new HyperLogLog().estimate()).isZero();
+    }
+
+    @Test
+    void addReportsWhetherSketchChanged() {
+        HyperLogLog sketch = new HyperLogLog();
+
+        assertThat(sketch.add(hash(1))).isTrue();
+        assertThat(sketch.add(hash(1))).isFalse();
+    }
+
+    @Test
+    void smallSketchStaysSparse() {
+        HyperLogLog sketch = sketchOf(0, 100);
+
+        byte[] bytes = sketch.toBytes();
+        assertThat(bytes[0]).isEqualTo(FORMAT_SPARSE);
+        assertThat(bytes.length).isLessThan(1 + HyperLogLog.REGISTERS);
+    }
+
+    @Test
+    void switchesToDenseOnceSparseWouldBeLarger() {
+        HyperLogLog sketch = sketchOf(0, 2_000);
+
+        byte[] bytes = sketch.toBytes();
+        assertThat(bytes[0]).isEqualTo(FORMAT_DENSE);
+        assertThat(bytes).hasSize(1 + HyperLogLog.REGISTERS);
+    }
+
+    @Test
+    void sparseRoundTripsThroughBytes() {
+        HyperLogLog sketch = sketchOf(0, 300);
+
+        HyperLogLog copy = HyperLogLog.fromBytes(sketch.toBytes());
+
+        assertThat(copy.toBytes()[0]).isEqualTo(FORMAT_SPARSE);
+        assertThat(copy.estimate()).isEqualTo(sketch.estimate());
+        assertThat(copy.toBytes()).isEqualTo(sketch.toBytes());
+    }
+
+    @Test
+    void denseRoundTripsThroughBytes() {
+        HyperLogLog sketch = sketchOf(0, 50_000);
+
+        HyperLogLog copy = HyperLogLog.fromBytes(sketch.toBytes());
+
+        assertThat(copy.toBytes()[0]).isEqualTo(FORMAT_DENSE);
+        assertThat(copy.estimate()).isEqualTo(sketch.estimate());
+        assertThat(copy.toBytes()).isEqualTo(sketch.toBytes());
+    }
+
+    @Test
+    void mergeEqualsSketchOfUnion() {
+        HyperLogLog left = sketchOf(0, 30_000);
+        HyperLogLog right = sketchOf(20_000, 60_000);
+        HyperLogLog union = sketchOf(0, 60_000);
+
+        left.merge(right);
+
+        assertThat(left.estimate()).isEqualTo(union.estimate());
+    }
+
+    @Test
+    void mergeIsIdempotent() {
+        HyperLogLog sketch = sketchOf(0, 10_000);
+        long before = sketch.estimate();
+
+        sketch.merge(sketchOf(0, 10_000));
+        sketch.merge(sketchOf(5_000, 8_000));
+
+        assertThat(sketch.estimate()).isEqualTo(before);
+    }
+
+    @Test
+    void mergesAcrossSparseAndDense() {
+        HyperLogLog sparse = sketchOf(0, 200);
+        HyperLogLog dense = sketchOf(1_000, 20_000);
+        HyperLogLog union = sketchOf(0, 200);
+        union.merge(sketchOf(1_000, 20_000));
+
+        HyperLogLog sparseIntoDense = sketchOf(1_000, 20_000);
+        sparseIntoDense.merge(sparse);
+        sparse.merge(dense);
+
+        assertThat(sparse.estimate()).isEqualTo(union.estimate());
+        assertThat(sparseIntoDense.estimate()).isEqualTo(union.estimate());
+    }
+
+    @Test
+    void estimateStaysWithinErrorBounds() {
+        for (int count : new int[]{10, 100, 1_000, 10_000, 100_000, 1_000_000}) {
+            long estimate = sketchOf(0, count).estimate();
+
+            // Four standard errors: a fixed hash sequence either passes or fails deterministically
+            assertThat((double) estimate)
+                    .as("estimate for %d distinct items", count)
+                    .isCloseTo(count, within(Math.max(1.0, 4 * HyperLogLog.STANDARD_ERROR * count)));
+        }
+    }
+
+    @Test
+    void duplicatesDoNotInflateEstimate() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 5_000; i++) {
+                sketch.add(hash(i));
+            }
+        }
+
+        assertThat(sketch.estimate()).isEqualTo(sketchOf(0, 5_000).estimate());
+    }
+
+    private static HyperLogLog sketchOf(int from, int to) {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = from; i < to; i++) {
+            sketch.add(hash(i));
+        }
+        return sketch;
+    }
+
+    // SplitMix64 finalizer, same family as the hash the service applies to user IDs
+    private static long hash(long value) {
+        long h = value + 0x9e3779b97f4a7c15L;
+        h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+        h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+        return h ^ (h >>> 31);
+    }
+}
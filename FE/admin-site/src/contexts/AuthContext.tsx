@@ -1,10 +1,14 @@
 import React, { createContext, useContext, useState, useEffect } from 'react';
-import type { AuthUser } from '../types';
+import type { AuthUser, SessionTokens } from '../types';
+import { refreshSession, logout as logoutApi } from '../services/auth';
+
+// Refresh this long before the access token expires
+const REFRESH_MARGIN_MS = 60_000;
 
 interface AuthContextType {
   user: AuthUser | null;
   isAuthenticated: boolean;
-  login: (user: AuthUser, token: string, profile?: Record<string, unknown>) => void;
+  login: (user: AuthUser, token: string, profile?: Record<string, unknown>, session?: SessionTokens) => void;
   logout: () => void;
   loading: boolean;
 }
@@ -43,6 +47,8 @@ export const AuthProvider: React.FC<AuthProviderProps> = ({ children }) => {
         console.error('Error parsing stored auth data:', error);
         localStorage.removeItem('auth_user');
         localStorage.removeItem('auth_token');
+        localStorage.removeItem('auth_refresh_token');
+        localStorage.removeItem('auth_expires_at');
       } finally {
         setLoading(false);
       }
@@ -51,19 +57,59 @@ export const AuthProvider: React.FC<AuthProviderProps> = ({ children }) => {
     checkAuth();
   }, []);
 
-  const login = (userData: AuthUser, token: string, profile?: Record<string, unknown>) => {
+  // Services read auth_token from localStorage, so keeping it fresh there is enough
+  useEffect(() => {
+    if (!user) return;
+
+    let timer: ReturnType<typeof setTimeout>;
+    const schedule = () => {
+      const expiresAt = Number(localStorage.getItem('auth_expires_at') || 0);
+      timer = setTimeout(refresh, Math.max(expiresAt - Date.now() - REFRESH_MARGIN_MS, 0));
+    };
+    const refresh = async () => {
+      const refreshToken = localStorage.getItem('auth_refresh_token');
+      if (!refreshToken) return;
+      try {
+        storeSession(await refreshSession(refreshToken));
+        schedule();
+      } catch (error) {
+        console.error('Error refreshing session:', error);
+        logout();
+      }
+    };
+
+    schedule();
+    return () => clearTimeout(timer);
+  }, [user]);
+
+  const storeSession = (session: SessionTokens) => {
+    localStorage.setItem('auth_token', session.token);
+    localStorage.setItem('auth_refresh_token', session.refreshToken);
+    localStorage.setItem('auth_expires_at', String(Date.now() + session.expiresIn));
+  };
+
+  const login = (userData: AuthUser, token: string, profile?: Record<string, unknown>, session?: SessionTokens) => {
     setUser(userData);
     localStorage.setItem('auth_user', JSON.stringify(userData));
     localStorage.setItem('auth_token', token);
+    if (session) {
+      storeSession(session);
+    }
     if (profile) {
       localStorage.setItem('auth_profile', JSON.stringify(profile));
     }
   };
 
   const logout = () => {
+    const refreshToken = localStorage.getItem('auth_refresh_token');
+    if (refreshToken) {
+      logoutApi(refreshToken, localStorage.getItem('auth_token')).catch(() => {});
+    }
     setUser(null);
     localStorage.removeItem('auth_user');
     localStorage.removeItem('auth_token');
+    localStorage.removeItem('auth_refresh_token');
+    localStorage.removeItem('auth_expires_at');
     localStorage.removeItem('auth_profile');
   };
 
@@ -9,18 +9,35 @@ import {
   FallOutlined,
 } from '@ant-design/icons';
 import { useNavigate } from 'react-router-dom';
-import { getDashboardStats, type DashboardStats, type LowStockBook } from '../services/dashboard';
+import {
+  getDashboardStats,
+  getSalesTimeSeries,
+  streamSales,
+  type DashboardStats,
+  type LowStockBook,
+  type SalesPoint,
+  type SalesTimeSeries,
+} from '../services/dashboard';
 import type { Order } from '../services/orders';
 
 const Dashboard: React.FC = () => {
   const navigate = useNavigate();
   const [loading, setLoading] = useState(false);
   const [stats, setStats] = useState<DashboardStats | null>(null);
+  const [sales, setSales] = useState<SalesTimeSeries | null>(null);
 
   useEffect(() => {
     loadDashboardStats();
   }, []);
 
+  useEffect(() => {
+    getSalesTimeSeries(60)
+      .then(setSales)
+      .catch((error) => console.error('Load sales time series error:', error));
+
+    return streamSales((points) => setSales((current) => (current ? mergeSalesPoints(current, points) : current)));
+  }, []);
+
   const loadDashboardStats = async () => {
     setLoading(true);
     try {
@@ -33,6 +50,28 @@ const Dashboard: React.FC = () => {
     }
   };
 
+  // Replace buckets for minutes we already show; new minutes are appended and the oldest dropped
+  const mergeSalesPoints = (current: SalesTimeSeries, incoming: SalesPoint[]): SalesTimeSeries => {
+    let points = [...current.points];
+    incoming.forEach((point) => {
+      const index = points.findIndex((p) => p.minute === point.minute);
+      if (index >= 0) {
+        points[index] = point;
+      } else if (points.length === 0 || point.minute > points[points.length - 1].minute) {
+        points = [...points, point].slice(-current.windowMinutes);
+      }
+    });
+
+    return {
+      ...current,
+      points,
+      totalOrders: points.reduce((sum, p) => sum + p.orders, 0),
+      totalRevenue: points.reduce((sum, p) => sum + p.revenue, 0),
+    };
+  };
+
+  const maxSalesRevenue = Math.max(1, ...(sales?.points.map((p) => p.revenue) || []));
+
   const getStatusColor = (status: Order['status']) => {
     const colors = {
       pending: 'orange',
@@ -210,6 +249,34 @@ const Dashboard: React.FC = () => {
         </Col>
       </Row>
 
+      {/* Live sales, last 60 minutes */}
+      <Row gutter={[16, 16]}>
+        <Col xs={24}>
+          <Card title="Doanh số 60 phút gần nhất" className="shadow-sm">
+            <Row gutter={[16, 16]}>
+              <Col xs={12} lg={4}>
+                <Statistic title="Đơn hàng" value={sales?.totalOrders || 0} />
+              </Col>
+              <Col xs={12} lg={4}>
+                <Statistic title="Doanh thu" value={sales?.totalRevenue || 0} suffix="₫" />
+              </Col>
+              <Col xs={24} lg={16}>
+                <div className="flex items-end h-24 gap-px">
+                  {(sales?.points || []).map((point) => (
+                    <div
+                      key={point.minute}
+                      className="flex-1 bg-green-400 rounded-t"
+                      style={{ height: `${(point.revenue / maxSalesRevenue) * 100}%`, minHeight: point.orders > 0 ? 2 : 0 }}
+                      title={`${point.minute.slice(11, 16)} · ${point.orders} đơn · ${point.revenue.toLocaleString('vi-VN')} ₫`}
+                    />
+                  ))}
+                </div>
+              </Col>
+            </Row>
+          </Card>
+        </Col>
+      </Row>
+
       {/* Recent Orders and Low Stock Books */}
       <Row gutter={[16, 16]}>
         <Col xs={24} lg={12}>
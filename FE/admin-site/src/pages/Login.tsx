@@ -31,7 +31,8 @@ const Login: React.FC = () => {
           fullName: auth.profile?.fullName,
           email: auth.profile?.email,
           role: auth.profile?.role,
-        }
+        },
+        { token: auth.token, refreshToken: auth.refreshToken, expiresIn: auth.expiresIn }
       );
 
       messageApi.success('Đăng nhập thành công!');
@@ -1,5 +1,5 @@
 import { getApiUrl } from '../config';
-import type { RegisterRequest, LoginRequest, AuthResponse, LoginApiData } from '../types';
+import type { RegisterRequest, LoginRequest, AuthResponse, LoginApiData, SessionTokens } from '../types';
 
 export async function registerAdmin(request: RegisterRequest): Promise<void> {
 	const url = getApiUrl('/auth/register/admin');
@@ -84,6 +84,8 @@ export async function login(request: LoginRequest): Promise<AuthResponse> {
 			role: normalizedRole,
 		},
 		token: data.token,
+		refreshToken: data.refreshToken,
+		expiresIn: data.expiresIn,
 		profile: {
 			fullName: payload?.data?.fullName,
 			email: payload?.data?.email,
@@ -92,3 +94,45 @@ export async function login(request: LoginRequest): Promise<AuthResponse> {
 		},
 	};
 }
+
+// Exchanges the refresh token for a new access token; the refresh token is rotated too
+export async function refreshSession(refreshToken: string): Promise<SessionTokens> {
+	const url = getApiUrl('/auth/refresh');
+
+	const response = await fetch(url, {
+		method: 'POST',
+		headers: {
+			'Content-Type': 'application/json',
+		},
+		body: JSON.stringify({ refreshToken }),
+	});
+
+	let payload: any = undefined;
+	try {
+		payload = await response.json();
+	} catch {}
+
+	const data: LoginApiData | undefined = payload?.data;
+	if (!response.ok || payload?.success === false || !data?.token) {
+		throw new Error(payload?.message || 'Phiên đăng nhập đã hết hạn');
+	}
+
+	return {
+		token: data.token,
+		refreshToken: data.refreshToken,
+		expiresIn: data.expiresIn,
+	};
+}
+
+export async function logout(refreshToken: string, token: string | null): Promise<void> {
+	const url = getApiUrl('/auth/logout');
+
+	await fetch(url, {
+		method: 'POST',
+		headers: {
+			'Content-Type': 'application/json',
+			...(token && { Authorization: `Bearer ${token}` }),
+		},
+		body: JSON.stringify({ refreshToken }),
+	});
+}
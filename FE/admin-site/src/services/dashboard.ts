@@ -37,20 +37,8 @@ export type LowStockBook = {
 	id: number;
 	title: string;
 	author: string;
-	price: number;
-	description: string;
-	coverImage: string;
 	stockQuantity: number;
-	category: {
-		id: number;
-		name: string;
-		description: string;
-		createdAt: string;
-		updatedAt: string;
-		books: string[];
-	};
-	createdAt: string;
-	updatedAt: string;
+	categoryName: string;
 };
 
 export type DashboardStats = {
@@ -124,3 +112,105 @@ export async function getDashboardStats(): Promise<DashboardStats> {
 		lowStockBooks: data.lowStockBooks,
 	};
 }
+
+export type SalesPoint = {
+	minute: string;
+	orders: number;
+	revenue: number;
+};
+
+export type SalesTimeSeries = {
+	windowMinutes: number;
+	stepMinutes: number;
+	totalOrders: number;
+	totalRevenue: number;
+	points: SalesPoint[];
+};
+
+export async function getSalesTimeSeries(minutes = 60, step = 1): Promise<SalesTimeSeries> {
+	const url = getApiUrl(`/admin/dashboard/sales?minutes=${minutes}&step=${step}`);
+
+	const response = await fetch(url, {
+		method: 'GET',
+		headers: getAuthHeaders(),
+	});
+
+	let payload: any = undefined;
+	try {
+		payload = await response.json();
+	} catch {}
+
+	if (!response.ok || payload?.success === false) {
+		throw new Error(payload?.message || 'Lấy doanh số theo phút thất bại');
+	}
+
+	if (!payload?.data) {
+		throw new Error('Dữ liệu phản hồi không hợp lệ');
+	}
+
+	return payload.data;
+}
+
+// Calls onPoints with the latest minute buckets as they change; returns a function that closes the stream.
+export function streamSales(onPoints: (points: SalesPoint[]) => void): () => void {
+	const controller = new AbortController();
+	const token = localStorage.getItem('auth_token');
+
+	const run = async () => {
+		const response = await fetch(getApiUrl('/admin/dashboard/sales/stream'), {
+			headers: {
+				Accept: 'text/event-stream',
+				...(token && { Authorization: `Bearer ${token}` }),
+			},
+			signal: controller.signal,
+		});
+		if (!response.ok || !response.body) {
+			throw new Error(`Stream failed: ${response.status}`);
+		}
+
+		const reader = response.body.getReader();
+		const decoder = new TextDecoder();
+		let buffer = '';
+
+		while (true) {
+			const { value, done } = await reader.read();
+			if (done) break;
+			buffer += decoder.decode(value, { stream: true });
+
+			let boundary;
+			while ((boundary = buffer.indexOf('\n\n')) >= 0) {
+				const rawEvent = buffer.slice(0, boundary);
+				buffer = buffer.slice(boundary + 2);
+
+				const data = rawEvent
+					.split('\n')
+					.filter((line) => line.startsWith('data:'))
+					.map((line) => line.slice(5).trim())
+					.join('\n');
+				if (data) {
+					try {
+						onPoints(JSON.parse(data));
+					} catch (error) {
+						console.error('Sales stream parsing error:', error);
+					}
+				}
+			}
+		}
+	};
+
+	// Reconnect after the server closes the stream (timeout, restart), until closed by the caller
+	const loop = async () => {
+		while (!controller.signal.aborted) {
+			try {
+				await run();
+			} catch (error: any) {
+				if (controller.signal.aborted) return;
+				console.error('Sales stream error:', error?.message);
+			}
+			await new Promise((resolve) => setTimeout(resolve, 5000));
+		}
+	};
+	loop();
+
+	return () => controller.abort();
+}
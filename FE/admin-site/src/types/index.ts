@@ -76,6 +76,8 @@ export type RegisterRequest = {
 export type AuthResponse = {
   user: AuthUser;
   token: string;
+  refreshToken: string;
+  expiresIn: number;
   profile?: {
     fullName?: string;
     email?: string;
@@ -84,8 +86,16 @@ export type AuthResponse = {
   };
 };
 
+export type SessionTokens = {
+  token: string;
+  refreshToken: string;
+  expiresIn: number; // access token lifetime in milliseconds
+};
+
 export type LoginApiData = {
   token: string;
+  refreshToken: string;
+  expiresIn: number;
   username: string;
   fullName: string;
   email: string;
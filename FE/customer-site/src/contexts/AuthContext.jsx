@@ -47,6 +47,7 @@ export const AuthProvider = ({ children }) => {
         setUser(userInfo);
         localStorage.setItem('user', JSON.stringify(userInfo));
         localStorage.setItem('token', userInfo.token || '');
+        localStorage.setItem('refreshToken', response.data?.refreshToken || '');
 
         // Execute login callbacks
         onLoginCallbacks.forEach(callback => callback());
@@ -82,9 +83,15 @@ export const AuthProvider = ({ children }) => {
   };
 
   const logout = () => {
+    // Revoke server-side; local state is cleared regardless of the outcome
+    const refreshToken = localStorage.getItem('refreshToken');
+    if (refreshToken) {
+      apiClient.post('/auth/logout', { refreshToken }).catch(() => {});
+    }
     setUser(null);
     localStorage.removeItem('user');
     localStorage.removeItem('token');
+    localStorage.removeItem('refreshToken');
     return { success: true, message: 'Đăng xuất thành công' };
   };
 
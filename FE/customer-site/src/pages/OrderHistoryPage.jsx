@@ -70,6 +70,22 @@ const OrderHistoryPage = () => {
 
   const [allOrders, setAllOrders] = useState([]); // Store all orders for client-side search
 
+  // Live status updates pushed by the server instead of re-fetching
+  useEffect(() => {
+    if (!user) return;
+
+    const closeStream = apiClient.stream('/customer/orders/stream', (eventName, event) => {
+      if (eventName !== 'order-status') return;
+      setAllOrders((prev) => prev.map((order) => (
+        order.id === event.orderId
+          ? { ...order, status: event.status, statusDisplayName: event.statusDisplayName, updatedAt: event.updatedAt }
+          : order
+      )));
+    });
+
+    return closeStream;
+  }, [user]);
+
   const fetchOrders = async () => {
     if (!user) return;
 
@@ -77,7 +93,7 @@ const OrderHistoryPage = () => {
     try {
       // Always fetch all orders (no search parameter)
       const response = await apiClient.get(
-        `/customer/orders?pageIndex=0&pageSize=1000` // Get all orders
+        `/customer/orders?pageSize=1000` // Get all orders (newest 1000)
       );
 
       console.log('Orders API response:', response);
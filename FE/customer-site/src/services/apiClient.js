@@ -1,6 +1,37 @@
 export const API_BASE_URL = 'http://localhost:8080/api';
 
-async function request(path, options = {}) {
+// One refresh at a time; concurrent 401s wait for the same exchange
+let refreshPromise = null;
+
+function refreshAccessToken() {
+  const refreshToken = localStorage.getItem('refreshToken');
+  if (!refreshToken) {
+    return Promise.resolve(false);
+  }
+  if (!refreshPromise) {
+    refreshPromise = fetch(`${API_BASE_URL}/auth/refresh`, {
+      method: 'POST',
+      headers: { 'Content-Type': 'application/json' },
+      body: JSON.stringify({ refreshToken }),
+    })
+      .then(async (response) => {
+        const payload = response.ok ? await response.json() : null;
+        if (!payload?.success || !payload.data?.token) {
+          return false;
+        }
+        localStorage.setItem('token', payload.data.token);
+        localStorage.setItem('refreshToken', payload.data.refreshToken);
+        return true;
+      })
+      .catch(() => false)
+      .finally(() => {
+        refreshPromise = null;
+      });
+  }
+  return refreshPromise;
+}
+
+async function request(path, options = {}, retried = false) {
   const url = `${API_BASE_URL}${path}`;
   
   // Get token from localStorage
@@ -28,10 +59,16 @@ async function request(path, options = {}) {
         body: text
       });
       
+      // Access tokens are short-lived: refresh once and retry before giving up
+      if (response.status === 401 && !retried && !path.startsWith('/auth/') && await refreshAccessToken()) {
+        return request(path, options, true);
+      }
+
       // Handle authentication errors
       if (response.status === 401 || response.status === 403) {
         // Clear invalid token
         localStorage.removeItem('token');
+        localStorage.removeItem('refreshToken');
         localStorage.removeItem('user');
         throw new Error(`Authentication failed: ${response.status}`);
       }
@@ -78,12 +115,82 @@ async function request(path, options = {}) {
   }
 }
 
+// Server-sent events over fetch so the Authorization header can be sent (EventSource cannot).
+// Calls onEvent(eventName, data) for each event; returns a function that closes the stream.
+function stream(path, onEvent) {
+  const controller = new AbortController();
+
+  const run = async () => {
+    // Read on every (re)connect so a refreshed token is picked up
+    const token = localStorage.getItem('token');
+    const headers = { Accept: 'text/event-stream' };
+    if (token) {
+      headers['Authorization'] = `Bearer ${token}`;
+    }
+
+    const response = await fetch(`${API_BASE_URL}${path}`, { headers, signal: controller.signal });
+    if (response.status === 401) {
+      await refreshAccessToken();
+    }
+    if (!response.ok || !response.body) {
+      throw new Error(`Stream failed: ${response.status}`);
+    }
+
+    const reader = response.body.getReader();
+    const decoder = new TextDecoder();
+    let buffer = '';
+
+    while (true) {
+      const { value, done } = await reader.read();
+      if (done) break;
+      buffer += decoder.decode(value, { stream: true });
+
+      let boundary;
+      while ((boundary = buffer.indexOf('\n\n')) >= 0) {
+        const rawEvent = buffer.slice(0, boundary);
+        buffer = buffer.slice(boundary + 2);
+
+        let eventName = 'message';
+        const dataLines = [];
+        rawEvent.split('\n').forEach((line) => {
+          if (line.startsWith('event:')) eventName = line.slice(6).trim();
+          else if (line.startsWith('data:')) dataLines.push(line.slice(5).trim());
+        });
+        if (dataLines.length > 0) {
+          try {
+            onEvent(eventName, JSON.parse(dataLines.join('\n')));
+          } catch (parseError) {
+            console.error('Stream event parsing error:', parseError);
+          }
+        }
+      }
+    }
+  };
+
+  // Reconnect after the server closes the stream (timeout, restart), until closed by the caller
+  const loop = async () => {
+    while (!controller.signal.aborted) {
+      try {
+        await run();
+      } catch (error) {
+        if (controller.signal.aborted) return;
+        console.error('Stream error:', error.message);
+      }
+      await new Promise((resolve) => setTimeout(resolve, 5000));
+    }
+  };
+  loop();
+
+  return () => controller.abort();
+}
+
 export const apiClient = {
   get: (path, options = {}) => request(path, { ...options, method: 'GET' }),
   post: (path, body, options = {}) => request(path, { ...options, method: 'POST', body: JSON.stringify(body) }),
   put: (path, body, options = {}) => request(path, { ...options, method: 'PUT', body: JSON.stringify(body) }),
   patch: (path, body, options = {}) => request(path, { ...options, method: 'PATCH', body: JSON.stringify(body) }),
   delete: (path, options = {}) => request(path, { ...options, method: 'DELETE' }),
+  stream,
   baseUrl: API_BASE_URL,
 };
 